@@ -0,0 +1,34 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static Item item(long id) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Widget " + id);
+        item.setDescription("A benchmark widget");
+        item.setPriceCents(100 + id % 900);
+        return item;
+    }
+
+    static Cart cart(int distinctItems, int unitsPerItem) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark");
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user);
+        user.setCart(cart);
+        for (int i = 1; i <= distinctItems; i++) {
+            cart.addItem(item(i), unitsPerItem);
+        }
+        return cart;
+    }
+}
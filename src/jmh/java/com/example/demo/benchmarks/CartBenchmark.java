@@ -0,0 +1,61 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int cartSize;
+
+    private Cart cart;
+    private Item existing;
+    private Item absent;
+
+    @Setup
+    public void setUp() {
+        cart = BenchmarkFixtures.cart(cartSize, 1);
+        existing = BenchmarkFixtures.item(cartSize / 2 + 1);
+        absent = BenchmarkFixtures.item(cartSize + 1);
+    }
+
+    @Benchmark
+    public Cart addUnitToExistingLine() {
+        cart.addItem(existing, 1);
+        cart.removeItem(existing, 1);
+        return cart;
+    }
+
+    @Benchmark
+    public Cart addAndRemoveNewLine() {
+        cart.addItem(absent, 1);
+        cart.removeItem(absent, 1);
+        return cart;
+    }
+
+    @Benchmark
+    public Cart addManyUnits() {
+        cart.addItem(existing, 5000);
+        cart.removeItem(existing, 5000);
+        return cart;
+    }
+}
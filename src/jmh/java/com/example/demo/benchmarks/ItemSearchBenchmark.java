@@ -0,0 +1,63 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.catalog.ItemSearchIndex;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.responses.ItemSearchPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemSearchBenchmark {
+
+    private static final String[] ADJECTIVES = {"round", "square", "large", "small", "red", "blue", "steel", "wooden"};
+    private static final String[] NOUNS = {"widget", "gadget", "sprocket", "bracket", "hinge", "spring", "lever"};
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    private ItemSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new ItemSearchIndex();
+        for (long id = 1; id <= catalogSize; id++) {
+            Item item = BenchmarkFixtures.item(id);
+            String adjective = ADJECTIVES[(int) (id % ADJECTIVES.length)];
+            String noun = NOUNS[(int) (id % NOUNS.length)];
+            item.setName(adjective + " " + noun + " " + id);
+            item.setDescription("A " + adjective + " " + noun + " from series " + id % 97);
+            index.index(item);
+        }
+    }
+
+    @Benchmark
+    public ItemSearchPage selectiveQuery() {
+        return index.search("steel sprocket 4", 0, 20);
+    }
+
+    @Benchmark
+    public ItemSearchPage prefixQuery() {
+        return index.search("sprock", 0, 20);
+    }
+
+    @Benchmark
+    public ItemSearchPage rareTerm() {
+        return index.search("series 42", 0, 20);
+    }
+}
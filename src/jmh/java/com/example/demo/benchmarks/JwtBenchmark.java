@@ -0,0 +1,71 @@
+package com.example.demo.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.security.RevokedTokens;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTVerifier verifier;
+    private VerifiedTokenCache verifiedTokenCache;
+    private RevokedTokens revokedTokens;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        verifier = JWT.require(SecurityConstants.ALGORITHM).build();
+        verifiedTokenCache = new VerifiedTokenCache(10_000, 300, new SimpleMeterRegistry());
+        token = sign();
+        verifiedTokenCache.verify(token);
+        revokedTokens = new RevokedTokens(100_000, 0.01, 1000, 1024, new SimpleMeterRegistry(), false);
+        for (int i = 0; i < 50_000; i++) {
+            revokedTokens.revoke("revoked-" + i, System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME);
+        }
+    }
+
+    @Benchmark
+    public String sign() {
+        return JWT.create()
+                .withSubject("benchmark")
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+                .sign(SecurityConstants.ALGORITHM);
+    }
+
+    @Benchmark
+    public DecodedJWT verify() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return verifiedTokenCache.verify(token);
+    }
+
+    @Benchmark
+    public boolean revocationCheck() {
+        return revokedTokens.isRevoked("d9428888-122b-11e1-b85c-61cd3cbb3210");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.SareetaApplication;
+import com.example.demo.controllers.OrderController;
+import com.example.demo.controllers.UserController;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CreateUserRequest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order submission and user creation against the real application context and H2. Password hashing
+ * is replaced by a no-op encoder so only persistence is measured. Order submission runs on the order
+ * executor, so each call waits for its deferred result. The JDBC statements prepared per
+ * operation in the last measurement iteration are printed when each run finishes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({"20"})
+    private int cartLines;
+
+    private ConfigurableApplicationContext context;
+    private OrderController orderController;
+    private UserController userController;
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private long operations;
+    private long nextUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SareetaApplication.class)
+                .properties("server.port=0",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        orderController = context.getBean(OrderController.class);
+        userController = context.getBean(UserController.class);
+        userController.setEncoder(NoOpPasswordEncoder.getInstance());
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= cartLines; id++) {
+            Item item = BenchmarkFixtures.item(id);
+            item.setId(null);
+            items.add(item);
+        }
+        List<Item> saved = context.getBean(ItemRepository.class).saveAll(items);
+        transaction.execute(status -> {
+            Cart cart = new Cart();
+            for (Item item : saved) {
+                cart.addItem(item, 2);
+            }
+            context.getBean(CartRepository.class).save(cart);
+            User user = new User();
+            user.setUsername("benchmark");
+            user.setPassword("benchmark");
+            user.setCart(cart);
+            return context.getBean(UserRepository.class).save(user);
+        });
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        statistics.clear();
+        operations = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nJDBC statements per operation: %.2f (%d statements, %d operations)%n",
+                (double) statistics.getPrepareStatementCount() / operations,
+                statistics.getPrepareStatementCount(), operations);
+        context.close();
+    }
+
+    @Benchmark
+    public Object submitOrder() throws InterruptedException {
+        operations++;
+        DeferredResult<?> result = orderController.submit("benchmark", null);
+        CountDownLatch done = new CountDownLatch(1);
+        result.setResultHandler(value -> done.countDown());
+        done.await();
+        return result.getResult();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> createUser() {
+        operations++;
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername("user-" + nextUser++);
+        request.setPassword("benchmark-password");
+        request.setConfirmPassword("benchmark-password");
+        return transaction.execute(status -> userController.createUser(request));
+    }
+}
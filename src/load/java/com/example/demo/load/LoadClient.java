@@ -0,0 +1,158 @@
+package com.example.demo.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plain {@link HttpURLConnection} client for the application under test, holding the users and item ids
+ * the workloads draw from. Response bodies are read to the end so connections are kept alive.
+ */
+final class LoadClient {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private final String baseUrl;
+    private final String runId;
+    private final AtomicLong newUsers = new AtomicLong();
+    private final List<VirtualUser> users = new ArrayList<>();
+    private long[] itemIds = new long[0];
+
+    LoadClient(String baseUrl, String runId) {
+        this.baseUrl = baseUrl;
+        this.runId = runId;
+    }
+
+    /**
+     * The first user of run {@code runId}, which must be listed in {@code security.admin-usernames} to
+     * provision the others.
+     */
+    static String adminUsername(String runId) {
+        return "load-" + runId + "-0";
+    }
+
+    /**
+     * Creates {@code count} users and logs each one in. The first signs up on its own; the rest go through
+     * the bulk endpoint, which only admins may call.
+     */
+    void provisionUsers(int count) throws IOException {
+        VirtualUser first = new VirtualUser(adminUsername(runId));
+        check("Signing up " + first.username, post("/api/user/create", createUserBody(first.username), null));
+        check("Logging in " + first.username, login(first));
+        List<VirtualUser> created = new ArrayList<>(count);
+        created.add(first);
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i < count; i++) {
+            VirtualUser user = new VirtualUser("load-" + runId + "-" + i);
+            body.append(createUserBody(user.username)).append('\n');
+            created.add(user);
+        }
+        if (count > 1) {
+            check("Provisioning load test users", post("/api/admin/users/bulk", body.toString(), first));
+            for (VirtualUser user : created.subList(1, count)) {
+                check("Logging in " + user.username, login(user));
+            }
+        }
+        users.addAll(created);
+    }
+
+    void setItemIds(long[] itemIds) {
+        this.itemIds = itemIds;
+    }
+
+    VirtualUser randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    long randomItemId() {
+        return itemIds[ThreadLocalRandom.current().nextInt(itemIds.length)];
+    }
+
+    String nextNewUsername() {
+        return "load-" + runId + "-new-" + newUsers.incrementAndGet();
+    }
+
+    int login(VirtualUser user) throws IOException {
+        HttpURLConnection connection = open("POST", "/login", null);
+        write(connection, "{\"username\":\"" + user.username + "\",\"password\":\"" + PASSWORD + "\"}");
+        int status = finish(connection);
+        if (status == 200) {
+            user.token = connection.getHeaderField("Authorization");
+        }
+        return status;
+    }
+
+    int get(String path, VirtualUser user) throws IOException {
+        return finish(open("GET", path, user));
+    }
+
+    int post(String path, String body, VirtualUser user) throws IOException {
+        HttpURLConnection connection = open("POST", path, user);
+        write(connection, body == null ? "" : body);
+        return finish(connection);
+    }
+
+    private static void check(String step, int status) {
+        if (status != 200) {
+            throw new IllegalStateException(step + " failed with " + status);
+        }
+    }
+
+    static String createUserBody(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD
+                + "\",\"confirmPassword\":\"" + PASSWORD + "\"}";
+    }
+
+    private HttpURLConnection open(String method, String path, VirtualUser user) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        if (user != null && user.token != null) {
+            connection.setRequestProperty("Authorization", user.token);
+        }
+        return connection;
+    }
+
+    private static void write(HttpURLConnection connection, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setFixedLengthStreamingMode(bytes.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(bytes);
+        }
+    }
+
+    private static int finish(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (body != null) {
+            try (InputStream in = body) {
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) >= 0) {
+                    // drain so the connection returns to the keep-alive cache
+                }
+            }
+        }
+        return status;
+    }
+
+    static final class VirtualUser {
+
+        final String username;
+        volatile String token;
+
+        VirtualUser(String username) {
+            this.username = username;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of one load run, read from {@code --load.*} arguments. Every other argument is handed to the
+ * application, so {@code --orders.executor.threads=20} tunes the server under test.
+ */
+final class LoadOptions {
+
+    Map<Workload, Integer> mix = parseMix("browse:40,item:20,addToCart:20,submit:10,login:5,create:5");
+    int concurrency = 16;
+    double rate;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(30);
+    int users = 50;
+    int items = 1000;
+    String report = "target/load-result.json";
+    String baseline;
+    double maxRegression = 0.2;
+    double maxErrorRate = 0.01;
+    long minLatencyDeltaMillis = 2;
+    final List<String> applicationArgs = new ArrayList<>();
+
+    static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--load.")) {
+                options.applicationArgs.add(arg);
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected --load.<name>=<value> but got " + arg);
+            }
+            options.set(arg.substring("--load.".length(), equals), arg.substring(equals + 1));
+        }
+        if (options.concurrency < 1 || options.users < 1 || options.duration.isZero()) {
+            throw new IllegalArgumentException("concurrency, users and duration must be positive");
+        }
+        return options;
+    }
+
+    boolean isOpenModel() {
+        return rate > 0;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "mix":
+                mix = parseMix(value);
+                break;
+            case "concurrency":
+                concurrency = Integer.parseInt(value);
+                break;
+            case "rate":
+                rate = Double.parseDouble(value);
+                break;
+            case "warmup":
+                warmup = parseDuration(value);
+                break;
+            case "duration":
+                duration = parseDuration(value);
+                break;
+            case "users":
+                users = Integer.parseInt(value);
+                break;
+            case "items":
+                items = Integer.parseInt(value);
+                break;
+            case "report":
+                report = value.isEmpty() ? null : value;
+                break;
+            case "baseline":
+                baseline = value.isEmpty() ? null : value;
+                break;
+            case "max-regression":
+                maxRegression = Double.parseDouble(value);
+                break;
+            case "max-error-rate":
+                maxErrorRate = Double.parseDouble(value);
+                break;
+            case "min-latency-delta-ms":
+                minLatencyDeltaMillis = Long.parseLong(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option --load." + name);
+        }
+    }
+
+    private static Map<Workload, Integer> parseMix(String value) {
+        Map<Workload, Integer> mix = new EnumMap<>(Workload.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split(":");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Expected <workload>:<weight> but got " + part);
+            }
+            int parsed = Integer.parseInt(weight[1].trim());
+            if (parsed > 0) {
+                mix.put(Workload.named(weight[0].trim()), parsed);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The workload mix is empty");
+        }
+        return mix;
+    }
+
+    /** Accepts {@code 500ms}, {@code 30s}, {@code 2m} or a plain number of seconds. */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Latencies and errors per workload for one phase of a run. Latencies are recorded in microseconds and
+ * include time spent waiting to be sent, so an open-model run reports queueing behind a slow server
+ * instead of hiding it.
+ */
+final class LoadReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<Workload, Histogram> latencies = new EnumMap<>(Workload.class);
+    private final Map<Workload, LongAdder> errors = new EnumMap<>(Workload.class);
+    private long elapsedNanos;
+
+    LoadReport(Iterable<Workload> workloads) {
+        for (Workload workload : workloads) {
+            latencies.put(workload, new ConcurrentHistogram(3));
+            errors.put(workload, new LongAdder());
+        }
+    }
+
+    /** Records a finished request; statuses outside 2xx, and {@code -1} for I/O failures, count as errors. */
+    void record(Workload workload, long latencyNanos, int status) {
+        if (status < 200 || status >= 300) {
+            errors.get(workload).increment();
+        }
+        latencies.get(workload).recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    Map<String, Object> summarize(LoadOptions options) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("model", options.isOpenModel() ? "open" : "closed");
+        summary.put("concurrency", options.concurrency);
+        if (options.isOpenModel()) {
+            summary.put("rate", options.rate);
+        }
+        summary.put("elapsedSeconds", round(elapsedNanos / 1e9));
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        Map<String, Object> workloads = new LinkedHashMap<>();
+        for (Map.Entry<Workload, Histogram> entry : latencies.entrySet()) {
+            long workloadErrors = errors.get(entry.getKey()).sum();
+            workloads.put(entry.getKey().label(), stats(entry.getValue(), workloadErrors));
+            total.add(entry.getValue());
+            totalErrors += workloadErrors;
+        }
+        summary.put("total", stats(total, totalErrors));
+        summary.put("workloads", workloads);
+        return summary;
+    }
+
+    static void print(Map<String, Object> summary) {
+        System.out.printf("%n%-10s %9s %8s %11s %9s %9s %9s %9s%n",
+                "workload", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Object> entry : workloads(summary).entrySet()) {
+            print(entry.getKey(), stats(entry.getValue()));
+        }
+        print("total", stats(summary.get("total")));
+        System.out.println();
+    }
+
+    static void write(Map<String, Object> summary, String path) throws IOException {
+        File file = new File(path);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        MAPPER.writeValue(file, summary);
+    }
+
+    /**
+     * Compares {@code summary} against a report from an earlier run and returns one line per regression:
+     * p95 or p99 latency up by more than the allowed fraction (and the minimum delta), or throughput down
+     * by more than it. Workloads missing from either side are skipped.
+     */
+    static List<String> regressions(Map<String, Object> summary, String baselinePath, LoadOptions options)
+            throws IOException {
+        JsonNode baseline = MAPPER.readTree(new File(baselinePath)).path("workloads");
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : workloads(summary).entrySet()) {
+            JsonNode before = baseline.path(entry.getKey());
+            if (before.isMissingNode()) {
+                continue;
+            }
+            Map<String, Object> now = stats(entry.getValue());
+            for (String percentile : new String[] {"p95Ms", "p99Ms"}) {
+                double was = before.path(percentile).asDouble();
+                double is = (Double) now.get(percentile);
+                if (is > was * (1 + options.maxRegression) && is - was > options.minLatencyDeltaMillis) {
+                    regressions.add(String.format("%s %s %.2f -> %.2f", entry.getKey(), percentile, was, is));
+                }
+            }
+            double wasThroughput = before.path("throughput").asDouble();
+            double isThroughput = (Double) now.get("throughput");
+            if (isThroughput < wasThroughput * (1 - options.maxRegression)) {
+                regressions.add(String.format("%s throughput %.1f -> %.1f req/s", entry.getKey(), wasThroughput, isThroughput));
+            }
+        }
+        return regressions;
+    }
+
+    private Map<String, Object> stats(Histogram histogram, long errorCount) {
+        long count = histogram.getTotalCount();
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", count);
+        stats.put("errors", errorCount);
+        stats.put("errorRate", count == 0 ? 0.0 : round((double) errorCount / count));
+        stats.put("throughput", round(count / seconds));
+        stats.put("p50Ms", millis(histogram, 50));
+        stats.put("p95Ms", millis(histogram, 95));
+        stats.put("p99Ms", millis(histogram, 99));
+        stats.put("maxMs", round(histogram.getMaxValue() / 1000.0));
+        return stats;
+    }
+
+    private static void print(String label, Map<String, Object> stats) {
+        System.out.printf("%-10s %9d %8d %11.1f %9.2f %9.2f %9.2f %9.2f%n", label,
+                stats.get("requests"), stats.get("errors"), stats.get("throughput"),
+                stats.get("p50Ms"), stats.get("p95Ms"), stats.get("p99Ms"), stats.get("maxMs"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> workloads(Map<String, Object> summary) {
+        return (Map<String, Object>) summary.get("workloads");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(Object stats) {
+        return (Map<String, Object>) stats;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demo.load;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.SareetaApplication;
+import com.example.demo.catalog.CatalogImporter;
+
+/**
+ * End-to-end load test: starts the application on a random port, seeds a catalog and a pool of logged-in
+ * users, then drives a weighted mix of workloads over HTTP. The closed model keeps {@code concurrency}
+ * requests in flight; with {@code --load.rate} set it is an open model that starts requests on a fixed
+ * schedule whatever the server's latency. After a warmup phase the measured phase is printed, written to
+ * {@code --load.report}, and compared with {@code --load.baseline} if given; the process exits with 1 when
+ * the error rate is too high or the baseline regressed.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        System.setProperty("http.maxConnections", Integer.toString(Math.max(5, options.concurrency)));
+        // every virtual user connects from one address, so the login limits would throttle the run; system
+        // properties outrank application.properties and can still be overridden by application arguments
+        System.setProperty("security.rate-limit.ip.capacity", "1000000");
+        System.setProperty("security.rate-limit.ip.refill-per-minute", "1000000000");
+        System.setProperty("security.rate-limit.username.capacity", "1000000");
+        System.setProperty("security.rate-limit.username.refill-per-minute", "1000000000");
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        System.setProperty("security.admin-usernames", LoadClient.adminUsername(runId));
+        List<String> failures;
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SareetaApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run(options.applicationArgs.toArray(new String[0]));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadClient client = new LoadClient("http://localhost:" + port, runId);
+            seedCatalog(context, options.items);
+            client.setItemIds(context.getBean(JdbcTemplate.class)
+                    .queryForList("select id from item", Long.class).stream().mapToLong(Long::longValue).toArray());
+            client.provisionUsers(options.users);
+
+            if (!options.warmup.isZero()) {
+                System.out.printf("Warming up for %ds%n", options.warmup.getSeconds());
+                run(options, client, options.warmup.toNanos());
+            }
+            System.out.printf("Measuring for %ds%n", options.duration.getSeconds());
+            Map<String, Object> summary = run(options, client, options.duration.toNanos()).summarize(options);
+            LoadReport.print(summary);
+            if (options.report != null) {
+                LoadReport.write(summary, options.report);
+                System.out.println("Report written to " + options.report);
+            }
+            failures = check(summary, options);
+        } finally {
+            context.close();
+        }
+        for (String failure : failures) {
+            System.out.println("FAILED: " + failure);
+        }
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    private static void seedCatalog(ConfigurableApplicationContext context, int items) throws IOException {
+        if (items <= 0) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder("name,description,price\n");
+        for (int i = 1; i <= items; i++) {
+            csv.append("Load Widget ").append(i).append(",A widget for load testing number ").append(i)
+                    .append(',').append(1 + i % 50).append(".99\n");
+        }
+        context.getBean(CatalogImporter.class).importCsv(new StringReader(csv.toString()));
+    }
+
+    private static LoadReport run(LoadOptions options, LoadClient client, long durationNanos)
+            throws InterruptedException {
+        Workload[] picks = weightedPicks(options);
+        LoadReport report = new LoadReport(options.mix.keySet());
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(options.concurrency, options.concurrency,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        if (options.isOpenModel()) {
+            long intervalNanos = (long) (1e9 / options.rate);
+            for (long intended = start; intended < deadline; intended += intervalNanos) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long scheduledAt = intended;
+                workers.execute(() -> execute(client, report, pick(picks), scheduledAt));
+            }
+        } else {
+            for (int i = 0; i < options.concurrency; i++) {
+                workers.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        execute(client, report, pick(picks), System.nanoTime());
+                    }
+                });
+            }
+        }
+        drain(workers);
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private static void execute(LoadClient client, LoadReport report, Workload workload, long startedAt) {
+        int status;
+        try {
+            status = workload.run(client);
+        } catch (IOException e) {
+            status = -1;
+        }
+        report.record(workload, System.nanoTime() - startedAt, status);
+    }
+
+    private static void drain(ExecutorService workers) throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(2, TimeUnit.MINUTES)) {
+            workers.shutdownNow();
+            throw new IllegalStateException("Requests were still in flight two minutes after the phase ended");
+        }
+    }
+
+    private static Workload[] weightedPicks(LoadOptions options) {
+        List<Workload> picks = new ArrayList<>();
+        options.mix.forEach((workload, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                picks.add(workload);
+            }
+        });
+        return picks.toArray(new Workload[0]);
+    }
+
+    private static Workload pick(Workload[] picks) {
+        return picks[ThreadLocalRandom.current().nextInt(picks.length)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> check(Map<String, Object> summary, LoadOptions options) throws IOException {
+        List<String> failures = new ArrayList<>();
+        double errorRate = (Double) ((Map<String, Object>) summary.get("total")).get("errorRate");
+        if (errorRate > options.maxErrorRate) {
+            failures.add(String.format("error rate %.4f is above %.4f", errorRate, options.maxErrorRate));
+        }
+        if (options.baseline != null) {
+            failures.addAll(LoadReport.regressions(summary, options.baseline, options));
+        }
+        return failures;
+    }
+}
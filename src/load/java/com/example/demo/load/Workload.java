@@ -0,0 +1,72 @@
+package com.example.demo.load;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One request type of the mix. Each call picks a random provisioned user and catalog item and returns the
+ * HTTP status of the request it made.
+ */
+enum Workload {
+
+    BROWSE("browse") {
+        @Override
+        int run(LoadClient client) throws IOException {
+            return client.get("/api/item/page?limit=20&afterId=" + client.randomItemId(), client.randomUser());
+        }
+    },
+    ITEM("item") {
+        @Override
+        int run(LoadClient client) throws IOException {
+            return client.get("/api/item/" + client.randomItemId(), client.randomUser());
+        }
+    },
+    ADD_TO_CART("addToCart") {
+        @Override
+        int run(LoadClient client) throws IOException {
+            LoadClient.VirtualUser user = client.randomUser();
+            return client.post("/api/cart/addToCart", "{\"username\":\"" + user.username + "\",\"itemId\":"
+                    + client.randomItemId() + ",\"quantity\":" + ThreadLocalRandom.current().nextInt(1, 4) + "}", user);
+        }
+    },
+    SUBMIT("submit") {
+        @Override
+        int run(LoadClient client) throws IOException {
+            LoadClient.VirtualUser user = client.randomUser();
+            return client.post("/api/order/submit/" + user.username, null, user);
+        }
+    },
+    LOGIN("login") {
+        @Override
+        int run(LoadClient client) throws IOException {
+            return client.login(client.randomUser());
+        }
+    },
+    CREATE("create") {
+        @Override
+        int run(LoadClient client) throws IOException {
+            return client.post("/api/user/create", LoadClient.createUserBody(client.nextNewUsername()), null);
+        }
+    };
+
+    private final String label;
+
+    Workload(String label) {
+        this.label = label;
+    }
+
+    abstract int run(LoadClient client) throws IOException;
+
+    String label() {
+        return label;
+    }
+
+    static Workload named(String label) {
+        for (Workload workload : values()) {
+            if (workload.label.equalsIgnoreCase(label)) {
+                return workload;
+            }
+        }
+        throw new IllegalArgumentException("Unknown workload " + label);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.carts;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Applies cart mutations one user at a time. On this node, mutations for the same user are serialized
+ * by one of a fixed set of striped locks, so different users rarely wait on each other. Across nodes
+ * the cart's version column catches concurrent writes, and the mutation is retried in a fresh
+ * transaction a bounded number of times before the request is answered with 409.
+ */
+@Component
+public class CartUpdater {
+
+    private final ReentrantLock[] stripes;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Timer lockWaitTimer;
+    private final Counter retriedCounter;
+    private final Counter abandonedCounter;
+
+    @Autowired
+    public CartUpdater(PlatformTransactionManager transactionManager,
+                       @Value("${carts.update.lock-stripes:1024}") int lockStripes,
+                       @Value("${carts.update.max-attempts:3}") int maxAttempts,
+                       MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(1, lockStripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.lockWaitTimer = Timer.builder("cart.update.lock.wait").register(meterRegistry);
+        this.retriedCounter = Counter.builder("cart.update.conflicts").tag("outcome", "retried").register(meterRegistry);
+        this.abandonedCounter = Counter.builder("cart.update.conflicts").tag("outcome", "abandoned").register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code mutation} in its own transaction while holding the lock for {@code username}. The
+     * mutation must load the cart itself, since a retry needs the current version.
+     */
+    public <T> ResponseEntity<T> update(String username, Supplier<ResponseEntity<T>> mutation) {
+        ReentrantLock lock = stripeFor(username);
+        long waitStart = System.nanoTime();
+        lock.lock();
+        try {
+            lockWaitTimer.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> mutation.get());
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= maxAttempts) {
+                        abandonedCounter.increment();
+                        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                    }
+                    retriedCounter.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(String username) {
+        int hash = username == null ? 0 : username.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,585 @@
+package com.example.demo.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.Money;
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Streams items from CSV or newline-delimited JSON into the {@code item} table. Rows are read and
+ * validated one at a time and upserted by id in JDBC batches, so memory use does not grow with the
+ * file. Rows without an id get one from {@code item_seq}, allocated in the same blocks Hibernate uses.
+ * Invalid rows are counted and the first few reported; the rest of the file is still imported. A CSV
+ * row longer than {@code MAX_RECORD_LENGTH} is skipped up to the end of its record; only a quoted
+ * field left open at the end of the file ends the import early.
+ * <p>
+ * The startup import and the first search index build run once every singleton exists but before the
+ * web server opens its port, so no request sees a partial catalog, as when {@code data.sql} seeded it.
+ */
+@Component
+public class CatalogImporter implements SmartInitializingSingleton {
+
+	public static final int MAX_REPORTED_FAILURES = 100;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CatalogImporter.class);
+	private static final int MAX_TEXT_LENGTH = 255;
+	private static final int MAX_RECORD_LENGTH = 65_536;
+	private static final String UPSERT = "merge into item (id, name, description, price_cents) key (id) values (?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ItemCacheInvalidator cacheInvalidator;
+	private final ItemSearchIndex searchIndex;
+	private final ObjectReader jsonReader;
+	private final ResourceLoader resourceLoader;
+	private final String startupLocation;
+	private final int batchSize;
+	private final long progressInterval;
+	private final Counter importedCounter;
+	private final Counter rejectedCounter;
+
+	@Autowired
+	public CatalogImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			ItemCacheInvalidator cacheInvalidator, ItemSearchIndex searchIndex, ObjectMapper objectMapper,
+			ResourceLoader resourceLoader,
+			@Value("${catalog.import.location:}") String startupLocation,
+			@Value("${catalog.import.batch-size:1000}") int batchSize,
+			@Value("${catalog.import.progress-interval:100000}") long progressInterval,
+			MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.cacheInvalidator = cacheInvalidator;
+		this.searchIndex = searchIndex;
+		this.jsonReader = objectMapper.readerFor(JsonNode.class).with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+		this.resourceLoader = resourceLoader;
+		this.startupLocation = startupLocation;
+		this.batchSize = batchSize;
+		this.progressInterval = progressInterval;
+		this.importedCounter = Counter.builder("catalog.import.rows").tag("outcome", "imported").register(meterRegistry);
+		this.rejectedCounter = Counter.builder("catalog.import.rows").tag("outcome", "rejected").register(meterRegistry);
+	}
+
+	/**
+	 * Loads {@code catalog.import.location}, if set, then builds the search index. Startup fails if
+	 * the file cannot be read.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		if(!startupLocation.isEmpty()) {
+			try {
+				load(resourceLoader.getResource(startupLocation));
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not import " + startupLocation, e);
+			}
+		}
+		cacheInvalidator.evictAll();
+		searchIndex.rebuild();
+	}
+
+	/**
+	 * Imports a {@code .csv} or {@code .ndjson}/{@code .jsonl} resource, then refreshes the item
+	 * caches and the search index.
+	 */
+	public Report importResource(Resource resource) throws IOException {
+		return refreshed(load(resource));
+	}
+
+	/**
+	 * Imports CSV with a header row naming {@code name}, {@code description}, {@code price} and
+	 * optionally {@code id}; other columns are ignored. Quoted fields may contain commas, doubled
+	 * quotes and line breaks.
+	 */
+	public Report importCsv(Reader reader) throws IOException {
+		return refreshed(readCsv(buffered(reader)));
+	}
+
+	/**
+	 * Imports one JSON object per line with {@code name}, {@code description}, {@code price} and
+	 * optionally {@code id}. Blank lines are skipped.
+	 */
+	public Report importNdjson(Reader reader) throws IOException {
+		return refreshed(readNdjson(buffered(reader)));
+	}
+
+	private Report refreshed(Report report) {
+		cacheInvalidator.evictAll();
+		searchIndex.rebuild();
+		return report;
+	}
+
+	private Report load(Resource resource) throws IOException {
+		String filename = resource.getFilename() == null ? "" : resource.getFilename().toLowerCase(Locale.ROOT);
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+			Report report;
+			if(filename.endsWith(".csv")) {
+				report = readCsv(reader);
+			} else if(filename.endsWith(".ndjson") || filename.endsWith(".jsonl")) {
+				report = readNdjson(reader);
+			} else {
+				throw new IllegalArgumentException("Cannot tell the format of " + resource + "; expected .csv, .ndjson or .jsonl");
+			}
+			LOGGER.info("Imported {} from {}", report, resource);
+			return report;
+		}
+	}
+
+	private Report readCsv(BufferedReader reader) throws IOException {
+		Batch batch = new Batch();
+		List<String> header = readRecord(reader);
+		if(header == null) {
+			return batch.finish();
+		}
+		Map<String, Integer> columns = new HashMap<>();
+		for(int i = 0; i < header.size(); i++) {
+			columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+		}
+		for(String required : new String[] { "name", "description", "price" }) {
+			if(!columns.containsKey(required)) {
+				throw new IllegalArgumentException("CSV header has no " + required + " column");
+			}
+		}
+		Integer idColumn = columns.get("id");
+		int nameColumn = columns.get("name");
+		int descriptionColumn = columns.get("description");
+		int priceColumn = columns.get("price");
+		long row = 0;
+		while(true) {
+			List<String> record;
+			try {
+				record = readRecord(reader);
+			} catch (MalformedRowException e) {
+				// the reader is at the next record, or at the end after an unterminated quote
+				batch.reject(++row, e.getMessage());
+				continue;
+			}
+			if(record == null) {
+				break;
+			}
+			row++;
+			if(record.size() == 1 && record.get(0).trim().isEmpty()) {
+				continue;
+			}
+			batch.add(row, field(record, idColumn), field(record, nameColumn), field(record, descriptionColumn),
+					field(record, priceColumn));
+		}
+		return batch.finish();
+	}
+
+	private Report readNdjson(BufferedReader reader) throws IOException {
+		Batch batch = new Batch();
+		long row = 0;
+		String line;
+		while((line = reader.readLine()) != null) {
+			row++;
+			if(line.trim().isEmpty()) {
+				continue;
+			}
+			JsonNode node;
+			try {
+				node = jsonReader.readValue(line);
+			} catch (IOException e) {
+				batch.reject(row, "Malformed JSON");
+				continue;
+			}
+			if(!node.isObject()) {
+				batch.reject(row, "Row is not a JSON object");
+				continue;
+			}
+			batch.add(row, text(node, "id"), text(node, "name"), text(node, "description"), text(node, "price"));
+		}
+		return batch.finish();
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.get(field);
+		return value == null || value.isNull() ? null : value.asText();
+	}
+
+	private static String field(List<String> record, Integer column) {
+		return column == null || column >= record.size() ? null : record.get(column);
+	}
+
+	private static List<String> readRecord(BufferedReader reader) throws IOException {
+		String line = reader.readLine();
+		if(line == null) {
+			return null;
+		}
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int length = line.length();
+		int i = 0;
+		while(true) {
+			if(i == line.length()) {
+				if(!quoted) {
+					fields.add(field.toString());
+					return fields;
+				}
+				line = reader.readLine();
+				if(line == null) {
+					throw new MalformedRowException("Unterminated quoted field");
+				}
+				length += line.length() + 1;
+				if(length > MAX_RECORD_LENGTH) {
+					skipQuoted(reader, line);
+					throw new MalformedRowException("Row is longer than " + MAX_RECORD_LENGTH + " characters");
+				}
+				field.append('\n');
+				i = 0;
+				continue;
+			}
+			char c = line.charAt(i++);
+			if(quoted) {
+				if(c != '"') {
+					field.append(c);
+				} else if(i < line.length() && line.charAt(i) == '"') {
+					field.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if(c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if(c == '"' && field.length() == 0) {
+				quoted = true;
+			} else {
+				field.append(c);
+			}
+		}
+	}
+
+	/**
+	 * Consumes the rest of a record from the start of {@code line}, which continues a quoted field,
+	 * so that the next read starts at the following record. Stops at the end of the input.
+	 */
+	private static void skipQuoted(BufferedReader reader, String line) throws IOException {
+		boolean quoted = true;
+		boolean fieldStart = false;
+		int i = 0;
+		while(true) {
+			if(i == line.length()) {
+				if(!quoted) {
+					return;
+				}
+				line = reader.readLine();
+				if(line == null) {
+					return;
+				}
+				i = 0;
+				continue;
+			}
+			char c = line.charAt(i++);
+			if(quoted) {
+				if(c == '"') {
+					if(i < line.length() && line.charAt(i) == '"') {
+						i++;
+					} else {
+						quoted = false;
+					}
+				}
+			} else if(c == ',') {
+				fieldStart = true;
+				continue;
+			} else if(c == '"' && fieldStart) {
+				quoted = true;
+			}
+			fieldStart = false;
+		}
+	}
+
+	private static BufferedReader buffered(Reader reader) {
+		return reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	private static String validateText(String value, String label) {
+		if(value.length() > MAX_TEXT_LENGTH) {
+			return label + " is longer than " + MAX_TEXT_LENGTH + " characters";
+		}
+		return null;
+	}
+
+	/**
+	 * Accumulates validated rows and writes them a batch at a time.
+	 */
+	private class Batch {
+
+		private final long startNanos = System.nanoTime();
+		private final List<Object[]> rows = new ArrayList<>(batchSize);
+		private final List<Long> rowNumbers = new ArrayList<>(batchSize);
+		private final List<Failure> failures = new ArrayList<>();
+		private long imported;
+		private long rejected;
+		// start to end (exclusive) of the id ranges handed to rows without an id
+		private final NavigableMap<Long, Long> allocated = new TreeMap<>();
+		private long nextId;
+		private long lastId;
+		private long maxExplicitId;
+
+		void add(long row, String id, String name, String description, String price) {
+			String error = null;
+			Long itemId = null;
+			long priceCents = 0;
+			if(name == null || name.trim().isEmpty()) {
+				error = "Name is required";
+			} else if(description == null) {
+				error = "Description is required";
+			} else if(price == null || price.trim().isEmpty()) {
+				error = "Price is required";
+			}
+			if(error == null) {
+				error = validateText(name, "Name");
+			}
+			if(error == null) {
+				error = validateText(description, "Description");
+			}
+			if(error == null) {
+				try {
+					BigDecimal amount = new BigDecimal(price.trim());
+					if(amount.signum() < 0) {
+						error = "Price cannot be negative";
+					} else if(amount.stripTrailingZeros().scale() > Money.SCALE) {
+						error = "Price has more than " + Money.SCALE + " decimal places";
+					} else {
+						priceCents = Money.toMinorUnits(amount);
+					}
+				} catch (NumberFormatException | ArithmeticException e) {
+					error = "Price is not a valid amount";
+				}
+			}
+			if(error == null && id != null && !id.trim().isEmpty()) {
+				try {
+					itemId = Long.valueOf(id.trim());
+				} catch (NumberFormatException e) {
+					itemId = -1L;
+				}
+				if(itemId <= 0) {
+					error = "Id must be a positive whole number";
+				} else if(isAllocated(itemId)) {
+					error = "Id was already given to a row without one";
+				}
+			}
+			if(error != null) {
+				reject(row, error);
+				return;
+			}
+			if(itemId == null) {
+				itemId = allocateId();
+			} else {
+				maxExplicitId = Math.max(maxExplicitId, itemId);
+				if(itemId >= nextId && itemId < lastId) {
+					// the rest of this block could hand the id out again; the next block starts past it
+					lastId = nextId;
+				}
+			}
+			rows.add(new Object[] { itemId, name.trim(), description, priceCents });
+			rowNumbers.add(row);
+			if(rows.size() == batchSize) {
+				flush();
+			}
+		}
+
+		void reject(long row, String reason) {
+			long before = imported + rejected;
+			rejected++;
+			rejectedCounter.increment();
+			if(failures.size() < MAX_REPORTED_FAILURES) {
+				failures.add(new Failure(row, reason));
+			}
+			progressed(before);
+		}
+
+		Report finish() {
+			flush();
+			if(maxExplicitId > 0) {
+				nextSequenceBlock();
+			}
+			return report(failures);
+		}
+
+		private long allocateId() {
+			if(nextId == lastId) {
+				nextId = nextSequenceBlock();
+				lastId = nextId + Item.ID_ALLOCATION_SIZE;
+			}
+			long id = nextId++;
+			// ids only grow, so the latest range either ends at this id or a new one starts here
+			Map.Entry<Long, Long> latest = allocated.lastEntry();
+			allocated.put(latest != null && latest.getValue() == id ? latest.getKey() : id, id + 1);
+			return id;
+		}
+
+		private boolean isAllocated(long id) {
+			Map.Entry<Long, Long> range = allocated.floorEntry(id);
+			return range != null && id < range.getValue();
+		}
+
+		/**
+		 * Takes the next block from {@code item_seq}, first moving the sequence past any explicit id
+		 * seen so far so that neither this import nor Hibernate hands it out again.
+		 */
+		private long nextSequenceBlock() {
+			long low = jdbcTemplate.queryForObject("select next value for item_seq", Long.class);
+			if(low <= maxExplicitId) {
+				jdbcTemplate.execute("alter sequence item_seq restart with " + (maxExplicitId + 1));
+				low = jdbcTemplate.queryForObject("select next value for item_seq", Long.class);
+			}
+			return low;
+		}
+
+		private void flush() {
+			if(rows.isEmpty()) {
+				return;
+			}
+			try {
+				transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPSERT, rows));
+				written(rows.size());
+			} catch (DataAccessException e) {
+				for(int i = 0; i < rows.size(); i++) {
+					Object[] values = rows.get(i);
+					try {
+						jdbcTemplate.update(UPSERT, values);
+						written(1);
+					} catch (DataAccessException rowFailure) {
+						reject(rowNumbers.get(i), "Row could not be saved");
+					}
+				}
+			}
+			rows.clear();
+			rowNumbers.clear();
+		}
+
+		private void written(int count) {
+			long before = imported + rejected;
+			imported += count;
+			importedCounter.increment(count);
+			progressed(before);
+		}
+
+		private void progressed(long before) {
+			if(progressInterval > 0 && (imported + rejected) / progressInterval != before / progressInterval) {
+				LOGGER.info("Catalog import progress: {}", report(Collections.emptyList()));
+			}
+		}
+
+		private Report report(List<Failure> reported) {
+			return new Report(imported + rejected, imported, rejected, reported, System.nanoTime() - startNanos);
+		}
+	}
+
+	private static class MalformedRowException extends IOException {
+
+		private MalformedRowException(String message) {
+			super(message);
+		}
+	}
+
+	public static class Report {
+
+		private final long rows;
+		private final long imported;
+		private final long rejected;
+		private final List<Failure> failures;
+		private final long elapsedNanos;
+
+		public Report(long rows, long imported, long rejected, List<Failure> failures, long elapsedNanos) {
+			this.rows = rows;
+			this.imported = imported;
+			this.rejected = rejected;
+			this.failures = failures;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public long getRows() {
+			return rows;
+		}
+
+		public long getImported() {
+			return imported;
+		}
+
+		public long getRejected() {
+			return rejected;
+		}
+
+		/**
+		 * The first {@link #MAX_REPORTED_FAILURES} rejected rows.
+		 */
+		public List<Failure> getFailures() {
+			return failures;
+		}
+
+		public long getElapsedMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+		}
+
+		public double getRowsPerSecond() {
+			return elapsedNanos == 0 ? 0 : (imported + rejected) * 1e9 / elapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%d rows (%d imported, %d rejected) in %d ms, %.0f rows/s",
+					rows, imported, rejected, getElapsedMillis(), getRowsPerSecond());
+		}
+	}
+
+	public static class Failure {
+
+		private final long row;
+		private final String reason;
+
+		public Failure(long row, String reason) {
+			this.row = row;
+			this.reason = reason;
+		}
+
+		public long getRow() {
+			return row;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			return "row " + row + ": " + reason;
+		}
+	}
+}
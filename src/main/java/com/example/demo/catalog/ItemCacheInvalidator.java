@@ -0,0 +1,76 @@
+package com.example.demo.catalog;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+
+/**
+ * JPA listener on {@link Item} that drops the cached catalog reads served by
+ * {@link ItemRepository}. Eviction is deferred until the surrounding
+ * transaction commits so a concurrent read cannot re-cache the old row.
+ */
+@Component
+public class ItemCacheInvalidator {
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	public ItemCacheInvalidator() {
+	}
+
+	public ItemCacheInvalidator(CacheManager cacheManager) {
+		this.cacheManager = cacheManager;
+	}
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void itemChanged(Item item) {
+		Long id = item.getId();
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					evict(id);
+				}
+			});
+		} else {
+			evict(id);
+		}
+	}
+
+	public void evictAll() {
+		clear(ItemRepository.CACHE_BY_ID);
+		clear(ItemRepository.CACHE_BY_NAME);
+		clear(ItemRepository.CACHE_ALL);
+	}
+
+	private void evict(Long id) {
+		if(cacheManager == null) {
+			return;
+		}
+		Cache byId = cacheManager.getCache(ItemRepository.CACHE_BY_ID);
+		if(byId != null && id != null) {
+			byId.evict(id);
+		}
+		clear(ItemRepository.CACHE_BY_NAME);
+		clear(ItemRepository.CACHE_ALL);
+	}
+
+	private void clear(String name) {
+		Cache cache = cacheManager == null ? null : cacheManager.getCache(name);
+		if(cache != null) {
+			cache.clear();
+		}
+	}
+}
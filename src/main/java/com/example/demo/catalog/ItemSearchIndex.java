@@ -0,0 +1,323 @@
+package com.example.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ItemSearchPage;
+
+/**
+ * In-memory inverted index over item names and descriptions. Every query term must match;
+ * the last one also matches as a prefix so the index can back autocomplete. Hits are ranked
+ * by a BM25-style idf weighted towards name matches. Built by {@link CatalogImporter} before the
+ * web server starts and kept current by {@link ItemSearchIndexListener}.
+ */
+@Component
+public class ItemSearchIndex {
+
+	private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final int NAME_WEIGHT = 3;
+	private static final double PREFIX_MATCH_WEIGHT = 0.5;
+	private static final int MAX_PREFIX_EXPANSIONS = 128;
+	private static final Comparator<Hit> HIT_ORDER = Comparator.<Hit>comparingDouble(hit -> -hit.score)
+			.thenComparing(hit -> hit.item.getId());
+
+	// Lazy because Hibernate asks for ItemSearchIndexListener, and so this index, while the
+	// entity manager factory the repository needs is still being built.
+	@Autowired
+	@Lazy
+	private ItemRepository itemRepository;
+
+	@Autowired
+	@Lazy
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	@Lazy
+	private EntityManager entityManager;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+	private final Map<Long, Document> documents = new HashMap<>();
+
+	/**
+	 * Reloads the index from the item table. Streams and detaches the entities like
+	 * {@code /api/item/stream} rather than going through the cached {@code findAll}, so
+	 * the catalog is only held once, as the index's own copies.
+	 */
+	public void rebuild() {
+		List<Document> loaded = new ArrayList<>();
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(true);
+		transaction.execute(status -> {
+			try (Stream<Item> items = itemRepository.streamAllOrderById()) {
+				items.forEach(item -> {
+					loaded.add(new Document(item));
+					entityManager.detach(item);
+				});
+			}
+			return null;
+		});
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			for(Document document : loaded) {
+				add(document);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void index(Item item) {
+		Document document = new Document(item);
+		lock.writeLock().lock();
+		try {
+			remove(document.item.getId(), false);
+			add(document);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long id) {
+		remove(id, true);
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public ItemSearchPage search(String query, int offset, int limit) {
+		List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+		if(terms.isEmpty() || limit <= 0) {
+			return new ItemSearchPage(Collections.emptyList(), 0);
+		}
+		int from = Math.max(offset, 0);
+		int wanted = (int) Math.min((long) from + limit, Integer.MAX_VALUE);
+		PriorityQueue<Hit> top = new PriorityQueue<>(HIT_ORDER.reversed());
+		int total = 0;
+		lock.readLock().lock();
+		try {
+			List<QueryTerm> queryTerms = new ArrayList<>(terms.size());
+			for(int i = 0; i < terms.size(); i++) {
+				QueryTerm queryTerm = queryTerm(terms.get(i), i == terms.size() - 1);
+				if(queryTerm.size == 0) {
+					return new ItemSearchPage(Collections.emptyList(), 0);
+				}
+				queryTerms.add(queryTerm);
+			}
+			// Start from the rarest term and only look the others up for the documents it matched.
+			queryTerms.sort(Comparator.comparingInt(queryTerm -> queryTerm.size));
+			Map<Long, Double> scores = queryTerms.get(0).scoreAll();
+			for(QueryTerm queryTerm : queryTerms.subList(1, queryTerms.size())) {
+				if(scores.isEmpty()) {
+					break;
+				}
+				queryTerm.intersect(scores);
+			}
+			for(Map.Entry<Long, Double> entry : scores.entrySet()) {
+				total++;
+				Hit hit = new Hit(documents.get(entry.getKey()).item, entry.getValue());
+				if(top.size() < wanted) {
+					top.add(hit);
+				} else if(HIT_ORDER.compare(hit, top.peek()) < 0) {
+					top.poll();
+					top.add(hit);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<Hit> ranked = new ArrayList<>(top);
+		ranked.sort(HIT_ORDER);
+		List<Item> items = new ArrayList<>();
+		for(int i = from; i < ranked.size(); i++) {
+			items.add(ranked.get(i).item);
+		}
+		return new ItemSearchPage(items, total);
+	}
+
+	static List<String> tokenize(String text) {
+		if(text == null) {
+			return Collections.emptyList();
+		}
+		List<String> tokens = new ArrayList<>();
+		for(String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+			if(!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private QueryTerm queryTerm(String term, boolean prefix) {
+		QueryTerm queryTerm = new QueryTerm();
+		queryTerm.add(postings.get(term), 1.0);
+		if(prefix) {
+			int expansions = 0;
+			for(Map.Entry<String, Map<Long, Integer>> entry : postings.tailMap(term, false).entrySet()) {
+				if(!entry.getKey().startsWith(term) || ++expansions > MAX_PREFIX_EXPANSIONS) {
+					break;
+				}
+				queryTerm.add(entry.getValue(), PREFIX_MATCH_WEIGHT);
+			}
+		}
+		return queryTerm;
+	}
+
+	/**
+	 * One query term's matching postings lists (several for a prefix), each with its weight
+	 * already multiplied by its idf. A document's score for the term is its best match.
+	 */
+	private final class QueryTerm {
+
+		private final List<Map<Long, Integer>> matches = new ArrayList<>();
+		private final List<Double> weights = new ArrayList<>();
+		private int size;
+
+		private void add(Map<Long, Integer> termPostings, double matchWeight) {
+			if(termPostings == null) {
+				return;
+			}
+			int documentFrequency = termPostings.size();
+			double idf = Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+			matches.add(termPostings);
+			weights.add(matchWeight * idf);
+			size += documentFrequency;
+		}
+
+		private Map<Long, Double> scoreAll() {
+			Map<Long, Double> scores = new HashMap<>(size * 2);
+			for(int i = 0; i < matches.size(); i++) {
+				double weight = weights.get(i);
+				for(Map.Entry<Long, Integer> posting : matches.get(i).entrySet()) {
+					scores.merge(posting.getKey(), weight * posting.getValue(), Math::max);
+				}
+			}
+			return scores;
+		}
+
+		private void intersect(Map<Long, Double> scores) {
+			if((long) scores.size() * matches.size() > size) {
+				Map<Long, Double> termScores = scoreAll();
+				for(Iterator<Map.Entry<Long, Double>> it = scores.entrySet().iterator(); it.hasNext();) {
+					Map.Entry<Long, Double> entry = it.next();
+					Double termScore = termScores.get(entry.getKey());
+					if(termScore == null) {
+						it.remove();
+					} else {
+						entry.setValue(entry.getValue() + termScore);
+					}
+				}
+				return;
+			}
+			for(Iterator<Map.Entry<Long, Double>> it = scores.entrySet().iterator(); it.hasNext();) {
+				Map.Entry<Long, Double> entry = it.next();
+				double best = 0;
+				for(int i = 0; i < matches.size(); i++) {
+					Integer weight = matches.get(i).get(entry.getKey());
+					if(weight != null) {
+						best = Math.max(best, weights.get(i) * weight);
+					}
+				}
+				if(best == 0) {
+					it.remove();
+				} else {
+					entry.setValue(entry.getValue() + best);
+				}
+			}
+		}
+	}
+
+	private void add(Document document) {
+		Long id = document.item.getId();
+		documents.put(id, document);
+		for(Map.Entry<String, Integer> term : document.termWeights.entrySet()) {
+			postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(id, term.getValue());
+		}
+	}
+
+	private void remove(Long id, boolean lockForWrite) {
+		if(lockForWrite) {
+			lock.writeLock().lock();
+		}
+		try {
+			Document document = documents.remove(id);
+			if(document == null) {
+				return;
+			}
+			for(String term : document.termWeights.keySet()) {
+				Map<Long, Integer> termPostings = postings.get(term);
+				termPostings.remove(id);
+				if(termPostings.isEmpty()) {
+					postings.remove(term);
+				}
+			}
+		} finally {
+			if(lockForWrite) {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	private static final class Document {
+
+		private final Item item;
+		private final Map<String, Integer> termWeights = new HashMap<>();
+
+		private Document(Item source) {
+			item = new Item();
+			item.setId(source.getId());
+			item.setName(source.getName());
+			item.setDescription(source.getDescription());
+			item.setPriceCents(source.getPriceCents());
+			for(String token : tokenize(source.getName())) {
+				termWeights.merge(token, NAME_WEIGHT, Integer::sum);
+			}
+			for(String token : tokenize(source.getDescription())) {
+				termWeights.merge(token, 1, Integer::sum);
+			}
+		}
+	}
+
+	private static final class Hit {
+
+		private final Item item;
+		private final double score;
+
+		private Hit(Item item, double score) {
+			this.item = item;
+			this.score = score;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.demo.catalog;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.model.persistence.Item;
+
+/**
+ * JPA listener on {@link Item} that applies committed changes to the {@link ItemSearchIndex}.
+ */
+@Component
+public class ItemSearchIndexListener {
+
+	@Autowired
+	private ItemSearchIndex searchIndex;
+
+	public ItemSearchIndexListener() {
+	}
+
+	public ItemSearchIndexListener(ItemSearchIndex searchIndex) {
+		this.searchIndex = searchIndex;
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void itemSaved(Item item) {
+		Item snapshot = new Item();
+		snapshot.setId(item.getId());
+		snapshot.setName(item.getName());
+		snapshot.setDescription(item.getDescription());
+		snapshot.setPriceCents(item.getPriceCents());
+		afterCommit(() -> searchIndex.index(snapshot));
+	}
+
+	@PostRemove
+	public void itemRemoved(Item item) {
+		Long id = item.getId();
+		afterCommit(() -> searchIndex.remove(id));
+	}
+
+	private static void afterCommit(Runnable change) {
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+}
@@ -1,7 +1,15 @@
 package com.example.demo.controllers;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -11,13 +19,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.carts.CartUpdater;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BatchModifyCartRequest;
+import com.example.demo.model.requests.CartItemDelta;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.responses.CartDetail;
 
 @RestController
 @RequestMapping("/api/cart")
@@ -32,8 +44,18 @@ public class CartController {
 	@Autowired
 	private ItemRepository itemRepository;
 	
+	@Autowired
+	private CartUpdater cartUpdater;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
 	@PostMapping("/addToCart")
-	public ResponseEntity<Cart> addTocart(@RequestBody ModifyCartRequest request) {
+	public ResponseEntity<CartDetail> addTocart(@RequestBody ModifyCartRequest request) {
+		return cartUpdater.update(request.getUsername(), () -> addItem(request));
+	}
+	
+	private ResponseEntity<CartDetail> addItem(ModifyCartRequest request) {
 		User user = userRepository.findByUsername(request.getUsername());
 		if(user == null) {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -42,15 +64,18 @@ public class CartController {
 		if(!item.isPresent()) {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 		}
-		Cart cart = user.getCart();
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.addItem(item.get()));
+		Cart cart = lockedCart(user);
+		cart.addItem(item.get(), request.getQuantity());
 		cartRepository.save(cart);
-		return ResponseEntity.ok(cart);
+		return ResponseEntity.ok(CartDetail.of(cart));
 	}
 	
 	@PostMapping("/removeFromCart")
-	public ResponseEntity<Cart> removeFromcart(@RequestBody ModifyCartRequest request) {
+	public ResponseEntity<CartDetail> removeFromcart(@RequestBody ModifyCartRequest request) {
+		return cartUpdater.update(request.getUsername(), () -> removeItem(request));
+	}
+	
+	private ResponseEntity<CartDetail> removeItem(ModifyCartRequest request) {
 		User user = userRepository.findByUsername(request.getUsername());
 		if(user == null) {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -59,11 +84,56 @@ public class CartController {
 		if(!item.isPresent()) {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 		}
-		Cart cart = user.getCart();
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.removeItem(item.get()));
+		Cart cart = lockedCart(user);
+		cart.removeItem(item.get(), request.getQuantity());
+		cartRepository.save(cart);
+		return ResponseEntity.ok(CartDetail.of(cart));
+	}
+	
+	@PostMapping("/batch")
+	public ResponseEntity<CartDetail> batchModifyCart(@RequestBody BatchModifyCartRequest request) {
+		List<CartItemDelta> operations = request.getOperations();
+		if(operations == null || operations.isEmpty()) {
+			User user = userRepository.findByUsername(request.getUsername());
+			return user == null ? ResponseEntity.status(HttpStatus.NOT_FOUND).build() : ResponseEntity.ok(CartDetail.of(user.getCart()));
+		}
+		return cartUpdater.update(request.getUsername(), () -> applyOperations(request.getUsername(), operations));
+	}
+	
+	private ResponseEntity<CartDetail> applyOperations(String username, List<CartItemDelta> operations) {
+		User user = userRepository.findByUsername(username);
+		if(user == null) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		}
+		Set<Long> itemIds = operations.stream()
+			.map(CartItemDelta::getItemId)
+			.collect(Collectors.toSet());
+		Map<Long, Item> items = new HashMap<>();
+		for(Item item : itemRepository.findAllById(itemIds)) {
+			items.put(item.getId(), item);
+		}
+		if(items.size() != itemIds.size()) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		}
+		Cart cart = lockedCart(user);
+		for(CartItemDelta operation : operations) {
+			Item item = items.get(operation.getItemId());
+			if(operation.getDelta() > 0) {
+				cart.addItem(item, operation.getDelta());
+			} else {
+				cart.removeItem(item, -operation.getDelta());
+			}
+		}
 		cartRepository.save(cart);
-		return ResponseEntity.ok(cart);
+		return ResponseEntity.ok(CartDetail.of(cart));
+	}
+	
+	// Bumps the version even when only line quantities change and the total does not, so a
+	// concurrent change to the same cart always conflicts instead of being lost.
+	private Cart lockedCart(User user) {
+		Cart cart = user.getCart();
+		entityManager.lock(cart, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+		return cart;
 	}
 		
 }
@@ -1,28 +1,90 @@
 package com.example.demo.controllers;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.catalog.ItemSearchIndex;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ItemPage;
+import com.example.demo.model.responses.ItemSearchPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController
 @RequestMapping("/api/item")
 public class ItemController {
 
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final int MAX_SEARCH_RESULTS = 100;
+
 	@Autowired
 	private ItemRepository itemRepository;
+
+	@Autowired
+	private ItemSearchIndex searchIndex;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
 	
 	@GetMapping
 	public ResponseEntity<List<Item>> getItems() {
 		return ResponseEntity.ok(itemRepository.findAll());
 	}
+
+	@GetMapping("/page")
+	public ResponseEntity<ItemPage> getItemPage(@RequestParam(defaultValue = "0") long afterId,
+			@RequestParam(defaultValue = "50") int limit) {
+		int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+		List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+		Long nextAfterId = null;
+		if(items.size() > pageSize) {
+			items = items.subList(0, pageSize);
+			nextAfterId = items.get(pageSize - 1).getId();
+		}
+		return ResponseEntity.ok(new ItemPage(items, nextAfterId));
+	}
+
+	@GetMapping("/search")
+	public ResponseEntity<ItemSearchPage> searchItems(@RequestParam String q,
+			@RequestParam(defaultValue = "0") int offset, @RequestParam(defaultValue = "20") int limit) {
+		int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+		return ResponseEntity.ok(searchIndex.search(q, Math.max(0, offset), pageSize));
+	}
+
+	@GetMapping("/stream")
+	public ResponseEntity<StreamingResponseBody> streamItems() {
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.body(this::writeItems);
+	}
 	
 	@GetMapping("/{id}")
 	public ResponseEntity<Item> getItemById(@PathVariable Long id) {
@@ -36,5 +98,31 @@ public class ItemController {
 				: ResponseEntity.ok(items);
 			
 	}
+
+	private void writeItems(OutputStream out) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(Item.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(true);
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+			generator.writeStartArray();
+			transaction.execute(status -> {
+				try (Stream<Item> items = itemRepository.streamAllOrderById()) {
+					items.forEach(item -> {
+						try {
+							writer.writeValue(generator, item);
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+						entityManager.detach(item);
+					});
+				}
+				return null;
+			});
+			generator.writeEndArray();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
 	
 }
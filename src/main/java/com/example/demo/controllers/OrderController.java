@@ -1,26 +1,44 @@
 package com.example.demo.controllers;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserOrderStatsRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderDetail;
+import com.example.demo.model.responses.OrderHistoryPage;
+import com.example.demo.model.responses.OrderStats;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.orders.IdempotencyKeyStore;
+import com.example.demo.orders.OrderExecutor;
 
 @RestController
 @RequestMapping("/api/order")
 public class OrderController {
 	
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+	
+	private static final int MAX_PAGE_SIZE = 100;
+	private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 	
 	@Autowired
 	private UserRepository userRepository;
@@ -28,24 +46,116 @@ public class OrderController {
 	@Autowired
 	private OrderRepository orderRepository;
 	
+	@Autowired
+	private UserOrderStatsRepository orderStatsRepository;
+	
+	@Autowired
+	private IdempotencyKeyStore idempotencyKeyStore;
+	
+	@Autowired
+	private OrderExecutor orderExecutor;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
 	
 	@PostMapping("/submit/{username}")
-	public ResponseEntity<UserOrder> submit(@PathVariable String username) {
+	public DeferredResult<ResponseEntity<OrderDetail>> submit(@PathVariable String username,
+			@RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+		if(idempotencyKey == null) {
+			return orderExecutor.execute(() -> orderResponse(submitCart(username)));
+		}
+		if(idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+			DeferredResult<ResponseEntity<OrderDetail>> badRequest = new DeferredResult<>();
+			badRequest.setResult(ResponseEntity.badRequest().build());
+			return badRequest;
+		}
+		return orderExecutor.execute(() -> {
+			IdempotencyKeyStore.Submission submission =
+					idempotencyKeyStore.submitOnce(username, idempotencyKey, () -> submitCart(username));
+			if(submission.isReplayed() && submission.getOrder() != null) {
+				return ResponseEntity.ok().header(IDEMPOTENT_REPLAYED_HEADER, "true").body(submission.getOrder());
+			}
+			return orderResponse(submission.getOrder());
+		});
+	}
+	
+	// Runs on the order executor, outside the request's open entity manager, so the
+	// cart's lazy items have to be read, and the response built, inside this transaction.
+	// Two concurrent first orders can both try to insert the user's stats row; the loser
+	// rolls back and is retried once, when the row exists and is incremented instead.
+	private OrderDetail submitCart(String username) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		try {
+			return transaction.execute(status -> createOrder(username));
+		} catch (DataIntegrityViolationException e) {
+			return transaction.execute(status -> createOrder(username));
+		}
+	}
+	
+	private OrderDetail createOrder(String username) {
 		User user = userRepository.findByUsername(username);
 		if(user == null) {
-			return ResponseEntity.notFound().build();
+			return null;
 		}
 		UserOrder order = UserOrder.createFromCart(user.getCart());
 		orderRepository.save(order);
-		return ResponseEntity.ok(order);
+		if(orderStatsRepository.recordOrder(user.getId(), order.getTotalCents(), order.getCreatedAt()) == 0) {
+			orderStatsRepository.insertFirstOrder(user.getId(), order.getTotalCents(), order.getCreatedAt());
+		}
+		return OrderDetail.of(order);
+	}
+	
+	private static ResponseEntity<OrderDetail> orderResponse(OrderDetail order) {
+		return order == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(order);
 	}
 	
 	@GetMapping("/history/{username}")
-	public ResponseEntity<List<UserOrder>> getOrdersForUser(@PathVariable String username) {
+	public DeferredResult<ResponseEntity<OrderHistoryPage>> getOrdersForUser(@PathVariable String username,
+			@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+		return orderExecutor.execute(() -> readOnly().execute(status -> findOrdersForUser(username, page, size)));
+	}
+	
+	private ResponseEntity<OrderHistoryPage> findOrdersForUser(String username, int page, int size) {
+		User user = userRepository.findByUsername(username);
+		if(user == null) {
+			return ResponseEntity.notFound().build();
+		}
+		int pageNumber = Math.max(0, page);
+		int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		Slice<OrderSummary> orders = orderRepository.findSummariesByUser(user, PageRequest.of(pageNumber, pageSize));
+		return ResponseEntity.ok(new OrderHistoryPage(orders.getContent(), pageNumber, pageSize, orders.hasNext()));
+	}
+	
+	@GetMapping("/history/{username}/{orderId}")
+	public DeferredResult<ResponseEntity<OrderDetail>> getOrderForUser(@PathVariable String username,
+			@PathVariable Long orderId) {
+		return orderExecutor.execute(() -> readOnly().execute(status -> findOrderForUser(username, orderId)));
+	}
+	
+	private ResponseEntity<OrderDetail> findOrderForUser(String username, Long orderId) {
 		User user = userRepository.findByUsername(username);
 		if(user == null) {
 			return ResponseEntity.notFound().build();
 		}
-		return ResponseEntity.ok(orderRepository.findByUser(user));
+		return ResponseEntity.of(orderRepository.findWithItemsByIdAndUser(orderId, user).map(OrderDetail::of));
+	}
+	
+	@GetMapping("/stats/{username}")
+	public DeferredResult<ResponseEntity<OrderStats>> getOrderStats(@PathVariable String username) {
+		return orderExecutor.execute(() -> readOnly().execute(status -> findOrderStats(username)));
+	}
+	
+	private ResponseEntity<OrderStats> findOrderStats(String username) {
+		User user = userRepository.findByUsername(username);
+		if(user == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(orderStatsRepository.findById(user.getId()).map(OrderStats::of).orElseGet(OrderStats::none));
+	}
+	
+	private TransactionTemplate readOnly() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(true);
+		return transaction;
 	}
 }
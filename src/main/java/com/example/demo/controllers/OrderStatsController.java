@@ -0,0 +1,22 @@
+package com.example.demo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.orders.OrderStatsRebuilder;
+
+@RestController
+@RequestMapping("/api/admin/order-stats")
+public class OrderStatsController {
+	
+	@Autowired
+	private OrderStatsRebuilder orderStatsRebuilder;
+	
+	@PostMapping("/rebuild")
+	public ResponseEntity<OrderStatsRebuilder.Report> rebuild() {
+		return ResponseEntity.ok(orderStatsRebuilder.rebuild());
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.demo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.model.requests.RefreshTokenRequest;
+import com.example.demo.model.requests.RevokeTokenRequest;
+import com.example.demo.security.AccessTokens;
+import com.example.demo.security.RefreshTokenStore;
+import com.example.demo.security.RevokedTokens;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.security.VerifiedTokenCache;
+
+@RestController
+public class TokenController {
+	
+	@Autowired
+	private RefreshTokenStore refreshTokenStore;
+	
+	@Autowired
+	private RevokedTokens revokedTokens;
+	
+	/**
+	 * Exchanges a refresh token for a new access token and the next refresh token, answering like
+	 * {@code /login} but with a single lookup instead of a password check.
+	 */
+	@PostMapping(SecurityConstants.REFRESH_URL)
+	public ResponseEntity<Void> refresh(@RequestBody RefreshTokenRequest request) {
+		RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(request.getRefreshToken());
+		if(rotation == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		return ResponseEntity.ok()
+				.header(SecurityConstants.HEADER_STRING, AccessTokens.bearer(rotation.getUsername()))
+				.header(SecurityConstants.REFRESH_TOKEN_HEADER, rotation.getToken())
+				.build();
+	}
+	
+	/**
+	 * Revokes the access token the request was made with and, if one is given, the refresh token
+	 * family it was issued with.
+	 */
+	@PostMapping(SecurityConstants.LOGOUT_URL)
+	public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshTokenRequest request,
+			Authentication authentication) {
+		Object details = authentication == null ? null : authentication.getDetails();
+		if(details instanceof VerifiedTokenCache.VerifiedToken) {
+			VerifiedTokenCache.VerifiedToken token = (VerifiedTokenCache.VerifiedToken) details;
+			revokedTokens.revoke(token.getTokenId(), token.getExpiresAt());
+		}
+		if(request != null) {
+			refreshTokenStore.revoke(request.getRefreshToken());
+		}
+		return ResponseEntity.noContent().build();
+	}
+	
+	/**
+	 * Revokes an access token by id. The token's expiry is not known here, so the id is denied for the
+	 * longest lifetime an access token can have.
+	 */
+	@PostMapping("/api/admin/tokens/revoke")
+	public ResponseEntity<Void> revokeToken(@RequestBody RevokeTokenRequest request) {
+		if(request.getTokenId() == null || request.getTokenId().isEmpty()) {
+			return ResponseEntity.badRequest().build();
+		}
+		revokedTokens.revoke(request.getTokenId(), System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME);
+		return ResponseEntity.noContent().build();
+	}
+	
+}
@@ -1,8 +1,7 @@
 package com.example.demo.controllers;
 
-import java.util.Optional;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,11 +12,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.datasource.ReadWriteRoutingDataSource;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.PasswordHashingRejectedException;
+import com.example.demo.security.UserDetailsServiceImpl;
+import com.example.demo.users.UserProvisioner;
 
 @RestController
 @RequestMapping("/api/user")
@@ -29,6 +32,10 @@ public class UserController {
 	@Autowired
 	private CartRepository cartRepository;
 
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+
+	@Autowired
 	private PasswordEncoder encoder;
 
 	public void setEncoder(PasswordEncoder encoder) {
@@ -49,16 +56,9 @@ public class UserController {
 
 	@PostMapping("/create")
 	public ResponseEntity<?> createUser(@RequestBody CreateUserRequest createUserRequest) {
-		if (createUserRequest.getUsername() == null || createUserRequest.getUsername().isEmpty()) {
-			return ResponseEntity.badRequest().body("Username cannot be empty");
-		}
-
-		if (createUserRequest.getPassword() == null || createUserRequest.getPassword().length() < 8) {
-			return ResponseEntity.badRequest().body("Password must be at least 8 characters long");
-		}
-
-		if (!createUserRequest.getPassword().equals(createUserRequest.getConfirmPassword())) {
-			return ResponseEntity.badRequest().body("Passwords do not match");
+		String invalid = UserProvisioner.validate(createUserRequest);
+		if (invalid != null) {
+			return ResponseEntity.badRequest().body(invalid);
 		}
 
 		if (userRepository.findByUsername(createUserRequest.getUsername()) != null) {
@@ -67,12 +67,23 @@ public class UserController {
 
 		User user = new User();
 		user.setUsername(createUserRequest.getUsername());
-		String hashedPassword = encoder.encode(createUserRequest.getPassword());
+		String hashedPassword;
+		try {
+			hashedPassword = encoder.encode(createUserRequest.getPassword());
+		} catch (PasswordHashingRejectedException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, "1")
+					.build();
+		}
 		user.setPassword(hashedPassword);
 		Cart cart = new Cart();
-		cartRepository.save(cart);
-		user.setCart(cart);
-		userRepository.save(user);
+		// nobody is signed in yet; attributing the writes keeps the new user's login on the primary
+		ReadWriteRoutingDataSource.onBehalfOf(user.getUsername(), () -> {
+			cartRepository.save(cart);
+			user.setCart(cart);
+			return userRepository.save(user);
+		});
+		userDetailsService.evict(user.getUsername());
 
 		return ResponseEntity.ok(user);
 	}
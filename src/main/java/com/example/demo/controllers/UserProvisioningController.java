@@ -0,0 +1,46 @@
+package com.example.demo.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.ProvisioningReport;
+import com.example.demo.users.ProvisioningRejectedException;
+import com.example.demo.users.UserProvisioner;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RestController
+@RequestMapping("/api/admin/users")
+public class UserProvisioningController {
+	
+	@Autowired
+	private UserProvisioner userProvisioner;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	/**
+	 * Creates users from a JSON array or newline-delimited JSON stream of create requests, read
+	 * incrementally. Rows that cannot be created are listed in the report; the others are kept.
+	 * Answers 503 with {@code Retry-After} while another bulk job is running.
+	 */
+	@PostMapping("/bulk")
+	public ResponseEntity<ProvisioningReport> provisionUsers(InputStream body) throws IOException {
+		try (MappingIterator<CreateUserRequest> requests = objectMapper.readerFor(CreateUserRequest.class).readValues(body)) {
+			return ResponseEntity.ok(userProvisioner.provision(requests));
+		} catch (ProvisioningRejectedException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, "1")
+					.build();
+		}
+	}
+}
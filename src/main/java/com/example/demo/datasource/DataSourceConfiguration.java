@@ -0,0 +1,44 @@
+package com.example.demo.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Builds the primary and replica connection pools behind a {@link ReadWriteRoutingDataSource}. Both
+ * start from the {@code spring.datasource} settings; the replica pool is then bound to
+ * {@code datasource.replica.*}, so without a {@code jdbc-url} it is a separate read-only pool on the
+ * primary database. The pools are not beans of their own: Boot's schema and data initialization
+ * expects a single DataSource bean.
+ */
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                                 @Value("${datasource.replica.max-lag-ms:1000}") long maxReplicaLagMillis,
+                                                 MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(properties, "primary", meterRegistry);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        HikariDataSource replica = pool(properties, "replica", meterRegistry);
+        replica.setReadOnly(true);
+        binder.bind("datasource.replica", Bindable.ofInstance(replica));
+        return new ReadWriteRoutingDataSource(primary, replica, maxReplicaLagMillis, meterRegistry);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String name, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(name);
+        dataSource.setMetricRegistry(meterRegistry);
+        return dataSource;
+    }
+}
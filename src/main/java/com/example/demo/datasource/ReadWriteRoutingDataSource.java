@@ -0,0 +1,151 @@
+package com.example.demo.datasource;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary. A user whose
+ * write committed within the last {@code maxReplicaLagMillis} keeps reading from the primary so they
+ * see their own writes. Connections are fetched lazily, on the first statement, because the
+ * transaction's read-only flag is only known after the transaction manager has asked for a connection.
+ * <p>
+ * Reads and writes belong to the authenticated user, or to the user named by
+ * {@link #onBehalfOf(String, Supplier)} for work done before anyone is authenticated, such as
+ * sign-up and the login lookup.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final int MAX_TRACKED_WRITERS = 100_000;
+
+    private static final ThreadLocal<String> ON_BEHALF_OF = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long maxReplicaLagMillis,
+                                      MeterRegistry meterRegistry) {
+        super(new Router(primary, replica, maxReplicaLagMillis, meterRegistry));
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    /**
+     * Runs {@code work} with its transactions attributed to {@code username} instead of the
+     * authenticated user, if any.
+     */
+    public static <T> T onBehalfOf(String username, Supplier<T> work) {
+        String previous = ON_BEHALF_OF.get();
+        ON_BEHALF_OF.set(username);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ON_BEHALF_OF.remove();
+            } else {
+                ON_BEHALF_OF.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(replica);
+        closeQuietly(primary);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof Closeable) {
+            try {
+                ((Closeable) dataSource).close();
+            } catch (Exception e) {
+                // nothing left to do while shutting down
+            }
+        }
+    }
+
+    private enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static class Router extends AbstractRoutingDataSource {
+
+        private final Cache<String, Boolean> recentWriters;
+        private final Counter primaryRoutes;
+        private final Counter replicaRoutes;
+
+        private Router(DataSource primary, DataSource replica, long maxReplicaLagMillis, MeterRegistry meterRegistry) {
+            Map<Object, Object> targets = new HashMap<>();
+            targets.put(Route.PRIMARY, primary);
+            targets.put(Route.REPLICA, replica);
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(primary);
+            afterPropertiesSet();
+            this.recentWriters = maxReplicaLagMillis <= 0 ? null : Caffeine.newBuilder()
+                    .maximumSize(MAX_TRACKED_WRITERS)
+                    .expireAfterWrite(maxReplicaLagMillis, TimeUnit.MILLISECONDS)
+                    .build();
+            this.primaryRoutes = Counter.builder("datasource.routes").tag("target", "primary").register(meterRegistry);
+            this.replicaRoutes = Counter.builder("datasource.routes").tag("target", "replica").register(meterRegistry);
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            String username = currentUsername();
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                if (username != null && recentWriters != null) {
+                    recordWriter(username);
+                }
+                primaryRoutes.increment();
+                return Route.PRIMARY;
+            }
+            if (username != null && recentWriters != null && recentWriters.getIfPresent(username) != null) {
+                primaryRoutes.increment();
+                return Route.PRIMARY;
+            }
+            replicaRoutes.increment();
+            return Route.REPLICA;
+        }
+
+        // the lag window starts when the write becomes visible, which for a long transaction is well
+        // after its connection was routed; without a transaction every statement commits at once
+        private void recordWriter(String username) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                recentWriters.put(username, Boolean.TRUE);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(username, Boolean.TRUE);
+                }
+            });
+        }
+
+        private static String currentUsername() {
+            String onBehalfOf = ON_BEHALF_OF.get();
+            if (onBehalfOf != null) {
+                return onBehalfOf;
+            }
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return authentication == null ? null : authentication.getName();
+        }
+    }
+}
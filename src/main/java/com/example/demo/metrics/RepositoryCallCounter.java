@@ -0,0 +1,40 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts repository invocations made by the current thread since the last {@link #reset()}.
+ * Work handed to another thread can keep counting against the same request by passing
+ * {@link #current()} to {@link #attach(AtomicInteger)} there.
+ */
+public final class RepositoryCallCounter {
+
+    private static final ThreadLocal<AtomicInteger> CALLS = ThreadLocal.withInitial(AtomicInteger::new);
+
+    private RepositoryCallCounter() {
+    }
+
+    public static void reset() {
+        CALLS.set(new AtomicInteger());
+    }
+
+    public static void increment() {
+        CALLS.get().incrementAndGet();
+    }
+
+    public static int get() {
+        return CALLS.get().get();
+    }
+
+    public static AtomicInteger current() {
+        return CALLS.get();
+    }
+
+    public static void attach(AtomicInteger calls) {
+        CALLS.set(calls);
+    }
+
+    public static void detach() {
+        CALLS.remove();
+    }
+}
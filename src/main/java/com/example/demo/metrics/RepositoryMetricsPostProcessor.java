@@ -0,0 +1,98 @@
+package com.example.demo.metrics;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call on the application's Spring Data repositories as
+ * {@code repository.invocations}, tagged with the repository interface and method,
+ * and feeds {@link RepositoryCallCounter}. Calls answered by a cache in front of the
+ * repository are not counted.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised) {
+            Advised advised = repositoryProxy((Advised) bean);
+            for (Class<?> proxied : advised.getProxiedInterfaces()) {
+                if (Repository.class.isAssignableFrom(proxied)
+                        && !proxied.getName().startsWith("org.springframework.")) {
+                    advised.addAdvice(0, new TimingInterceptor(proxied.getSimpleName()));
+                    break;
+                }
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Unwraps proxies added around the repository (caching, for example) so the timer is
+     * installed ahead of Spring Data's own interceptors, which never call further down the chain.
+     */
+    private static Advised repositoryProxy(Advised advised) {
+        try {
+            Object target = advised.getTargetSource().getTarget();
+            if (target instanceof Repository && target instanceof Advised) {
+                return repositoryProxy((Advised) target);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot resolve repository proxy", e);
+        }
+        return advised;
+    }
+
+    private class TimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+        private final ConcurrentMap<Method, Timer> successTimers = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Method, Timer> errorTimers = new ConcurrentHashMap<>();
+
+        private TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            RepositoryCallCounter.increment();
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                Object result = invocation.proceed();
+                success = true;
+                return result;
+            } finally {
+                timer(invocation.getMethod(), success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private Timer timer(Method method, boolean success) {
+            ConcurrentMap<Method, Timer> timers = success ? successTimers : errorTimers;
+            return timers.computeIfAbsent(method, m -> Timer.builder("repository.invocations")
+                    .tag("repository", repository)
+                    .tag("method", m.getName())
+                    .tag("outcome", success ? "success" : "error")
+                    .register(meterRegistry.getObject()));
+        }
+    }
+}
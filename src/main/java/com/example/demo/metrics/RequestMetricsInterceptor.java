@@ -0,0 +1,52 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records how many repository calls each handled request made, per endpoint. For asynchronous
+ * requests the count started on the first dispatch is carried over to the async dispatch that
+ * completes the request.
+ */
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String CALLS_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".calls";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object calls = request.getAttribute(CALLS_ATTRIBUTE);
+        if (request.getDispatcherType() == DispatcherType.ASYNC && calls instanceof AtomicInteger) {
+            RepositoryCallCounter.attach((AtomicInteger) calls);
+        } else {
+            RepositoryCallCounter.reset();
+            request.setAttribute(CALLS_ATTRIBUTE, RepositoryCallCounter.current());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.server.requests.repository.calls")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .register(meterRegistry)
+                .record(RepositoryCallCounter.get());
+    }
+}
@@ -1,21 +1,26 @@
 package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.ManyToMany;
+import javax.persistence.MapKey;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import com.example.demo.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
@@ -23,30 +28,44 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class Cart {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+	@SequenceGenerator(name = "cart_seq", sequenceName = "cart_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany
-	@JsonProperty
-	@Column
-    private List<Item> items;
+	@OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
+	@MapKey(name = "item")
+	@JsonIgnore
+    private Map<Item, CartItem> items;
 	
 	@OneToOne(mappedBy = "cart")
 	@JsonProperty
     private User user;
 	
-	@Column
-	@JsonProperty
-	private BigDecimal total;
+	@Column(name = "total_cents", nullable = false)
+	@JsonIgnore
+	private long totalCents;
 	
-	public BigDecimal getTotal() {
-		return total;
+	@Version
+	@JsonIgnore
+	private long version;
+	
+	public long getVersion() {
+		return version;
 	}
 
-	public void setTotal(BigDecimal total) {
-		this.total = total;
+	public long getTotalCents() {
+		return totalCents;
+	}
+
+	public void setTotalCents(long totalCents) {
+		this.totalCents = totalCents;
+	}
+
+	@JsonProperty("total")
+	public BigDecimal getTotal() {
+		return Money.toDecimal(totalCents);
 	}
 
 	public User getUser() {
@@ -65,33 +84,63 @@ public class Cart {
 		this.id = id;
 	}
 
-	public List<Item> getItems() {
-		return items;
+	@JsonProperty("items")
+	public Collection<CartItem> getItems() {
+		if(items == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableCollection(items.values());
 	}
 
-	public void setItems(List<Item> items) {
-		this.items = items;
+	public int getQuantity(Item item) {
+		if(items == null) {
+			return 0;
+		}
+		CartItem line = items.get(item);
+		return line == null ? 0 : line.getQuantity();
 	}
 	
 	public void addItem(Item item) {
+		addItem(item, 1);
+	}
+	
+	public void addItem(Item item, int quantity) {
+		if(quantity <= 0) {
+			return;
+		}
 		if(items == null) {
-			items = new ArrayList<>();
+			items = new LinkedHashMap<>();
 		}
-		items.add(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		CartItem line = items.get(item);
+		// a line keeps the price it was created at, so removing it takes off exactly what adding it put on
+		long unitPriceCents = line == null ? item.getPriceCents() : line.getUnitPriceCents();
+		long newTotalCents = Math.addExact(totalCents, Math.multiplyExact(unitPriceCents, (long) quantity));
+		if(line == null) {
+			line = new CartItem(this, item, unitPriceCents);
+			items.put(item, line);
 		}
-		total = total.add(item.getPrice());
+		line.setQuantity(Math.addExact(line.getQuantity(), quantity));
+		totalCents = newTotalCents;
 	}
 	
 	public void removeItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		removeItem(item, 1);
+	}
+	
+	public void removeItem(Item item, int quantity) {
+		if(items == null || quantity <= 0) {
+			return;
+		}
+		CartItem line = items.get(item);
+		if(line == null) {
+			return;
 		}
-		items.remove(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		int removed = Math.min(quantity, line.getQuantity());
+		if(removed == line.getQuantity()) {
+			items.remove(item);
+		} else {
+			line.setQuantity(line.getQuantity() - removed);
 		}
-		total = total.subtract(item.getPrice());
+		totalCents = Math.subtractExact(totalCents, Math.multiplyExact(line.getUnitPriceCents(), (long) removed));
 	}
 }
@@ -4,22 +4,32 @@ import java.math.BigDecimal;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
+import com.example.demo.catalog.ItemCacheInvalidator;
+import com.example.demo.catalog.ItemSearchIndexListener;
+import com.example.demo.model.Money;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
+@EntityListeners({ItemCacheInvalidator.class, ItemSearchIndexListener.class})
 @Table(name = "item")
 public class Item {
 
+	/** Ids handed out per {@code item_seq} call; the sequence increments by this much. */
+	public static final int ID_ALLOCATION_SIZE = 50;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+	@SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = ID_ALLOCATION_SIZE)
 	@JsonProperty
 	private Long id;
 	
@@ -27,9 +37,9 @@ public class Item {
 	@JsonProperty
 	private String name;
 	
-	@Column(nullable = false)
-	@JsonProperty
-	private BigDecimal price;
+	@Column(name = "price_cents", nullable = false)
+	@JsonIgnore
+	private long priceCents;
 	
 	@Column(nullable = false)
 	@JsonProperty
@@ -76,12 +86,22 @@ public class Item {
 		this.name = name;
 	}
 
+	public long getPriceCents() {
+		return priceCents;
+	}
+
+	public void setPriceCents(long priceCents) {
+		this.priceCents = priceCents;
+	}
+
+	@JsonProperty("price")
 	public BigDecimal getPrice() {
-		return price;
+		return Money.toDecimal(priceCents);
 	}
 
+	@JsonProperty("price")
 	public void setPrice(BigDecimal price) {
-		this.price = price;
+		this.priceCents = Money.toMinorUnits(price);
 	}
 
 	public String getDescription() {
@@ -1,8 +1,9 @@
 package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -11,11 +12,13 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
+import com.example.demo.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
@@ -23,24 +26,28 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class UserOrder {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_order_seq")
+	@SequenceGenerator(name = "user_order_seq", sequenceName = "user_order_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany(cascade = CascadeType.ALL)
+	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
 	@JsonProperty
-	@Column
-    private List<Item> items;
+    private List<OrderItem> items;
 	
 	@ManyToOne
 	@JoinColumn(name="user_id", nullable = false, referencedColumnName = "id")
 	@JsonProperty
     private User user;
 	
+	@JsonIgnore
+	@Column(name = "total_cents", nullable = false)
+	private long totalCents;
+
 	@JsonProperty
-	@Column
-	private BigDecimal total;
+	@Column(nullable = false)
+	private Instant createdAt;
 
 	public Long getId() {
 		return id;
@@ -50,11 +57,11 @@ public class UserOrder {
 		this.id = id;
 	}
 
-	public List<Item> getItems() {
+	public List<OrderItem> getItems() {
 		return items;
 	}
 
-	public void setItems(List<Item> items) {
+	public void setItems(List<OrderItem> items) {
 		this.items = items;
 	}
 
@@ -66,19 +73,37 @@ public class UserOrder {
 		this.user = user;
 	}
 	
+	public long getTotalCents() {
+		return totalCents;
+	}
+
+	public void setTotalCents(long totalCents) {
+		this.totalCents = totalCents;
+	}
+
+	@JsonProperty("total")
 	public BigDecimal getTotal() {
-		return total;
+		return Money.toDecimal(totalCents);
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
 	}
 
-	public void setTotal(BigDecimal total) {
-		this.total = total;
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
 	}
 
 	public static UserOrder createFromCart(Cart cart) {
 		UserOrder order = new UserOrder();
-		order.setItems(cart.getItems().stream().collect(Collectors.toList()));
-		order.setTotal(cart.getTotal());
+		List<OrderItem> items = new ArrayList<>(cart.getItems().size());
+		for(CartItem line : cart.getItems()) {
+			items.add(new OrderItem(order, line.getItem(), line.getQuantity(), line.getUnitPriceCents()));
+		}
+		order.setItems(items);
+		order.setTotalCents(cart.getTotalCents());
 		order.setUser(cart.getUser());
+		order.setCreatedAt(Instant.now());
 		return order;
 	}
 	
@@ -0,0 +1,62 @@
+package com.example.demo.model.persistence;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Lifetime order aggregates for one user, kept in step with {@code user_order} as orders are submitted
+ * and recomputable from it by {@link com.example.demo.orders.OrderStatsRebuilder}.
+ */
+@Entity
+@Table(name = "user_order_stats")
+public class UserOrderStats {
+
+	@Id
+	@Column(name = "user_id")
+	private Long userId;
+
+	@Column(nullable = false)
+	private long orderCount;
+
+	@Column(name = "total_spent_cents", nullable = false)
+	private long totalSpentCents;
+
+	@Column
+	private Instant lastOrderAt;
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
+
+	public long getOrderCount() {
+		return orderCount;
+	}
+
+	public void setOrderCount(long orderCount) {
+		this.orderCount = orderCount;
+	}
+
+	public long getTotalSpentCents() {
+		return totalSpentCents;
+	}
+
+	public void setTotalSpentCents(long totalSpentCents) {
+		this.totalSpentCents = totalSpentCents;
+	}
+
+	public Instant getLastOrderAt() {
+		return lastOrderAt;
+	}
+
+	public void setLastOrderAt(Instant lastOrderAt) {
+		this.lastOrderAt = lastOrderAt;
+	}
+}
@@ -1,14 +1,45 @@
 package com.example.demo.model.persistence.repositories;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.demo.model.persistence.Item;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+	String CACHE_BY_ID = "items";
+	String CACHE_BY_NAME = "itemsByName";
+	String CACHE_ALL = "allItems";
+	String STREAM_FETCH_SIZE = "500";
+
+	@Cacheable(CACHE_BY_NAME)
 	List<Item> findByName(String name);
 
+	@Override
+	@Cacheable(CACHE_BY_ID)
+	Optional<Item> findById(Long id);
+
+	@Override
+	@Cacheable(cacheNames = CACHE_ALL, key = "'all'")
+	List<Item> findAll();
+
+	List<Item> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+	})
+	@Query("select i from Item i order by i.id")
+	Stream<Item> streamAllOrderById();
+
 }
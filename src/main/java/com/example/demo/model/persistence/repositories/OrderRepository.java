@@ -1,14 +1,27 @@
 package com.example.demo.model.persistence.repositories;
 
-import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderSummary;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<UserOrder, Long> {
-	List<UserOrder> findByUser(User user);
+
+	@Query("select new com.example.demo.model.responses.OrderSummary(o.id, o.totalCents, sum(i.quantity), o.createdAt) "
+			+ "from UserOrder o left join o.items i where o.user = :user "
+			+ "group by o.id, o.totalCents, o.createdAt order by o.createdAt desc, o.id desc")
+	Slice<OrderSummary> findSummariesByUser(@Param("user") User user, Pageable pageable);
+
+	@Query("select distinct o from UserOrder o left join fetch o.items i left join fetch i.item "
+			+ "where o.id = :id and o.user = :user")
+	Optional<UserOrder> findWithItemsByIdAndUser(@Param("id") Long id, @Param("user") User user);
 }
@@ -0,0 +1,38 @@
+package com.example.demo.model.persistence.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.model.persistence.UserOrderStats;
+
+@Repository
+public interface UserOrderStatsRepository extends JpaRepository<UserOrderStats, Long> {
+
+	/**
+	 * Adds one order to the user's aggregates in a single statement, so concurrent submissions cannot
+	 * lose an increment. Returns 0 when the user has no aggregates row yet.
+	 */
+	@Modifying
+	@Query("update UserOrderStats s set s.orderCount = s.orderCount + 1, "
+			+ "s.totalSpentCents = s.totalSpentCents + :totalCents, "
+			+ "s.lastOrderAt = case when s.lastOrderAt is null or s.lastOrderAt < :createdAt "
+			+ "then :createdAt else s.lastOrderAt end "
+			+ "where s.userId = :userId")
+	int recordOrder(@Param("userId") Long userId, @Param("totalCents") long totalCents,
+			@Param("createdAt") Instant createdAt);
+
+	/**
+	 * Creates the aggregates row for a user's first order. Unlike {@code save}, which would merge over a
+	 * row another transaction has just inserted, this fails on the duplicate key.
+	 */
+	@Modifying
+	@Query(value = "insert into user_order_stats (user_id, order_count, total_spent_cents, last_order_at) "
+			+ "values (:userId, 1, :totalCents, :createdAt)", nativeQuery = true)
+	int insertFirstOrder(@Param("userId") Long userId, @Param("totalCents") long totalCents,
+			@Param("createdAt") Instant createdAt);
+}
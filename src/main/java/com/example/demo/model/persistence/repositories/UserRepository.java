@@ -1,6 +1,11 @@
 package com.example.demo.model.persistence.repositories;
 
+import java.util.Collection;
+import java.util.Set;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.persistence.User;
 import org.springframework.stereotype.Repository;
@@ -8,4 +13,7 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 	User findByUsername(String username);
+
+	@Query("select u.username from User u where u.username in :usernames")
+	Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
 }
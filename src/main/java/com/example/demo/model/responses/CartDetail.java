@@ -0,0 +1,49 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.model.Money;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartItem;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class CartDetail {
+
+	@JsonProperty
+	private Long id;
+
+	@JsonProperty
+	private List<LineItem> items;
+
+	@JsonProperty
+	private BigDecimal total;
+
+	public CartDetail(Long id, List<LineItem> items, long totalCents) {
+		this.id = id;
+		this.items = items;
+		this.total = Money.toDecimal(totalCents);
+	}
+
+	public static CartDetail of(Cart cart) {
+		List<LineItem> items = new ArrayList<>(cart.getItems().size());
+		for(CartItem line : cart.getItems()) {
+			items.add(LineItem.of(line.getItem(), line.getUnitPriceCents(), line.getQuantity()));
+		}
+		return new CartDetail(cart.getId(), items, cart.getTotalCents());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public List<LineItem> getItems() {
+		return items;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ItemPage {
+
+	@JsonProperty
+	private List<Item> items;
+
+	@JsonProperty
+	private Long nextAfterId;
+
+	public ItemPage(List<Item> items, Long nextAfterId) {
+		this.items = items;
+		this.nextAfterId = nextAfterId;
+	}
+
+	public List<Item> getItems() {
+		return items;
+	}
+
+	public Long getNextAfterId() {
+		return nextAfterId;
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ItemSearchPage {
+
+	@JsonProperty
+	private List<Item> items;
+
+	@JsonProperty
+	private int total;
+
+	public ItemSearchPage(List<Item> items, int total) {
+		this.items = items;
+		this.total = total;
+	}
+
+	public List<Item> getItems() {
+		return items;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+}
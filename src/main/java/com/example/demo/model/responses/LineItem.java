@@ -0,0 +1,51 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+
+import com.example.demo.model.Money;
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class LineItem {
+
+	@JsonProperty
+	private long itemId;
+
+	@JsonProperty
+	private String name;
+
+	@JsonProperty
+	private int quantity;
+
+	@JsonProperty
+	private BigDecimal lineTotal;
+
+	public LineItem(long itemId, String name, int quantity, long lineTotalCents) {
+		this.itemId = itemId;
+		this.name = name;
+		this.quantity = quantity;
+		this.lineTotal = Money.toDecimal(lineTotalCents);
+	}
+
+	public static LineItem of(Item item, long unitPriceCents, int quantity) {
+		return new LineItem(item.getId(), item.getName(), quantity,
+				Math.multiplyExact(unitPriceCents, (long) quantity));
+	}
+
+	public long getItemId() {
+		return itemId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public BigDecimal getLineTotal() {
+		return lineTotal;
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.demo.model.Money;
+import com.example.demo.model.persistence.OrderItem;
+import com.example.demo.model.persistence.UserOrder;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderDetail {
+
+	@JsonProperty
+	private Long id;
+
+	@JsonProperty
+	private List<LineItem> items;
+
+	@JsonProperty
+	private BigDecimal total;
+
+	@JsonProperty
+	private Instant createdAt;
+
+	public OrderDetail(Long id, List<LineItem> items, long totalCents, Instant createdAt) {
+		this.id = id;
+		this.items = items;
+		this.total = Money.toDecimal(totalCents);
+		this.createdAt = createdAt;
+	}
+
+	public static OrderDetail of(UserOrder order) {
+		List<OrderItem> lines = order.getItems() == null ? Collections.emptyList() : order.getItems();
+		List<LineItem> items = new ArrayList<>(lines.size());
+		for(OrderItem line : lines) {
+			items.add(LineItem.of(line.getItem(), line.getUnitPriceCents(), line.getQuantity()));
+		}
+		return new OrderDetail(order.getId(), items, order.getTotalCents(), order.getCreatedAt());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public List<LineItem> getItems() {
+		return items;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+}
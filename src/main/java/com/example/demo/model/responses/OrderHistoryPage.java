@@ -0,0 +1,44 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderHistoryPage {
+
+	@JsonProperty
+	private List<OrderSummary> orders;
+
+	@JsonProperty
+	private int page;
+
+	@JsonProperty
+	private int size;
+
+	@JsonProperty
+	private boolean hasNext;
+
+	public OrderHistoryPage(List<OrderSummary> orders, int page, int size, boolean hasNext) {
+		this.orders = orders;
+		this.page = page;
+		this.size = size;
+		this.hasNext = hasNext;
+	}
+
+	public List<OrderSummary> getOrders() {
+		return orders;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+}
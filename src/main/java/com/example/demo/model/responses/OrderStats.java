@@ -0,0 +1,47 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.example.demo.model.Money;
+import com.example.demo.model.persistence.UserOrderStats;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderStats {
+
+	@JsonProperty
+	private long orderCount;
+
+	@JsonProperty
+	private BigDecimal totalSpent;
+
+	@JsonProperty
+	private Instant lastOrderAt;
+
+	public OrderStats(long orderCount, long totalSpentCents, Instant lastOrderAt) {
+		this.orderCount = orderCount;
+		this.totalSpent = Money.toDecimal(totalSpentCents);
+		this.lastOrderAt = lastOrderAt;
+	}
+
+	public static OrderStats of(UserOrderStats stats) {
+		return new OrderStats(stats.getOrderCount(), stats.getTotalSpentCents(), stats.getLastOrderAt());
+	}
+
+	public static OrderStats none() {
+		return new OrderStats(0, 0, null);
+	}
+
+	public long getOrderCount() {
+		return orderCount;
+	}
+
+	public BigDecimal getTotalSpent() {
+		return totalSpent;
+	}
+
+	public Instant getLastOrderAt() {
+		return lastOrderAt;
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.example.demo.model.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderSummary {
+
+	@JsonProperty
+	private Long id;
+
+	@JsonProperty
+	private BigDecimal total;
+
+	@JsonProperty
+	private long itemCount;
+
+	@JsonProperty
+	private Instant createdAt;
+
+	public OrderSummary(Long id, Long totalCents, Long itemCount, Instant createdAt) {
+		this.id = id;
+		this.total = Money.toDecimal(totalCents);
+		this.itemCount = itemCount == null ? 0 : itemCount;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ProvisioningReport {
+
+	@JsonProperty
+	private int received;
+
+	@JsonProperty
+	private int created;
+
+	@JsonProperty
+	private List<RowFailure> failures;
+
+	public ProvisioningReport(int received, int created, List<RowFailure> failures) {
+		this.received = received;
+		this.created = created;
+		this.failures = failures;
+	}
+
+	public int getReceived() {
+		return received;
+	}
+
+	public int getCreated() {
+		return created;
+	}
+
+	public List<RowFailure> getFailures() {
+		return failures;
+	}
+
+	public static class RowFailure {
+
+		@JsonProperty
+		private int row;
+
+		@JsonProperty
+		private String username;
+
+		@JsonProperty
+		private String reason;
+
+		public RowFailure(int row, String username, String reason) {
+			this.row = row;
+			this.username = username;
+			this.reason = reason;
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+	}
+
+}
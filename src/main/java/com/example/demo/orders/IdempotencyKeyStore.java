@@ -0,0 +1,95 @@
+package com.example.demo.orders;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.responses.OrderDetail;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, expiring record of the order responses given under each {@code Idempotency-Key}, scoped per user.
+ * A replayed key is answered from memory; a replay that arrives while the first submission is still
+ * running waits for its result instead of submitting again.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private final Cache<String, CompletableFuture<OrderDetail>> submissions;
+
+    public IdempotencyKeyStore(@Value("${orders.idempotency.maximum-size:10000}") long maximumSize,
+                               @Value("${orders.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                               MeterRegistry meterRegistry) {
+        this.submissions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, submissions, "order.idempotency",
+                "cacheManager", "orders", "name", "order.idempotency");
+    }
+
+    /**
+     * Runs {@code submit} once per username and key. A {@code null} result (nothing was submitted)
+     * and a failed submission are not remembered, so the key can be retried.
+     */
+    public Submission submitOnce(String username, String key, Supplier<OrderDetail> submit) {
+        String scopedKey = username + '\u0000' + key;
+        CompletableFuture<OrderDetail> claim = new CompletableFuture<>();
+        CompletableFuture<OrderDetail> existing = submissions.asMap().putIfAbsent(scopedKey, claim);
+        if (existing != null) {
+            try {
+                return new Submission(existing.join(), true);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        OrderDetail order;
+        try {
+            order = submit.get();
+        } catch (RuntimeException | Error e) {
+            submissions.asMap().remove(scopedKey, claim);
+            claim.completeExceptionally(e);
+            throw e;
+        }
+        if (order == null) {
+            submissions.asMap().remove(scopedKey, claim);
+        }
+        claim.complete(order);
+        return new Submission(order, false);
+    }
+
+    public long size() {
+        return submissions.estimatedSize();
+    }
+
+    public static final class Submission {
+
+        private final OrderDetail order;
+        private final boolean replayed;
+
+        private Submission(OrderDetail order, boolean replayed) {
+            this.order = order;
+            this.replayed = replayed;
+        }
+
+        public OrderDetail getOrder() {
+            return order;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+}
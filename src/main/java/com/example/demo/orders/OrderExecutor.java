@@ -0,0 +1,149 @@
+package com.example.demo.orders;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.example.demo.metrics.RepositoryCallCounter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs the database work of order requests on a fixed-size pool with a bounded queue, so a slow
+ * database ties up these threads rather than the servlet container's. A request that cannot be
+ * queued, or is still waiting in the queue when the timeout passes, is dropped and gets 503 with
+ * {@code Retry-After}. Work that has started is always allowed to finish and answer: an order whose
+ * transaction is already running may commit, so telling the client to retry would place it twice.
+ */
+@Component
+public class OrderExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService queueTimeouts;
+    private final long timeoutMillis;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+    private final Counter timeoutCounter;
+
+    @Autowired
+    public OrderExecutor(@Value("${orders.executor.threads:10}") int threads,
+                         @Value("${orders.executor.queue-capacity:100}") int queueCapacity,
+                         @Value("${orders.executor.timeout-ms:5000}") long timeoutMillis,
+                         MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "order-db-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "order-db-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timeouts.setRemoveOnCancelPolicy(true);
+        this.queueTimeouts = timeouts;
+        this.timeoutMillis = timeoutMillis;
+        this.queueWaitTimer = Timer.builder("orders.executor.queue.wait").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("orders.executor.rejected").register(meterRegistry);
+        this.timeoutCounter = Counter.builder("orders.executor.timeouts").register(meterRegistry);
+        Gauge.builder("orders.executor.queue.size", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("orders.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code work} on the pool with the caller's security context, completing the returned
+     * result with its response, or with the exception it throws. The result has no container timeout;
+     * the queue timeout applies only until the work starts.
+     */
+    public <T> DeferredResult<ResponseEntity<T>> execute(Supplier<ResponseEntity<T>> work) {
+        // 0 disables the servlet container's async timeout for this request
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>(0L);
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        AtomicInteger repositoryCalls = RepositoryCallCounter.current();
+        long queuedAt = System.nanoTime();
+        // claimed once, either by the task when it starts or by the timeout while it is still queued
+        AtomicBoolean claimed = new AtomicBoolean();
+        AtomicReference<ScheduledFuture<?>> queueTimeout = new AtomicReference<>();
+        Runnable task = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            ScheduledFuture<?> timeout = queueTimeout.get();
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            SecurityContextHolder.setContext(securityContext);
+            RepositoryCallCounter.attach(repositoryCalls);
+            try {
+                result.setResult(work.get());
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            } finally {
+                RepositoryCallCounter.detach();
+                SecurityContextHolder.clearContext();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            result.setResult(unavailable());
+            return result;
+        }
+        queueTimeout.set(queueTimeouts.schedule(() -> {
+            if (claimed.compareAndSet(false, true)) {
+                executor.remove(task);
+                timeoutCounter.increment();
+                result.setResult(unavailable());
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS));
+        if (claimed.get()) {
+            // the task started before the timeout was scheduled
+            queueTimeout.get().cancel(false);
+        }
+        return result;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        queueTimeouts.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static <T> ResponseEntity<T> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
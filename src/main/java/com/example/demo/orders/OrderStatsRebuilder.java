@@ -0,0 +1,168 @@
+package com.example.demo.orders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Recomputes {@code user_order_stats} from {@code user_order}, for recovery when the aggregates kept
+ * on submission are suspected to have drifted. The user id range is split into chunks that run in
+ * parallel, each replacing its users' rows with one grouped insert in its own transaction, so the job
+ * can run while orders are being submitted and a failed chunk can simply be rebuilt again.
+ */
+@Component
+public class OrderStatsRebuilder implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderStatsRebuilder.class);
+
+    private static final String DELETE_CHUNK = "delete from user_order_stats where user_id between ? and ?";
+    private static final String INSERT_CHUNK = "insert into user_order_stats "
+            + "(user_id, order_count, total_spent_cents, last_order_at) "
+            + "select user_id, count(*), sum(total_cents), max(created_at) from user_order "
+            + "where user_id between ? and ? group by user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final long chunkSize;
+    private final Counter rebuiltCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public OrderStatsRebuilder(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${orders.stats.rebuild.threads:0}") int threads,
+                               @Value("${orders.stats.rebuild.chunk-size:10000}") long chunkSize,
+                               MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "order-stats-rebuild-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunkSize = Math.max(1, chunkSize);
+        this.rebuiltCounter = Counter.builder("orders.stats.rebuild.chunks").tag("outcome", "rebuilt").register(meterRegistry);
+        this.failedCounter = Counter.builder("orders.stats.rebuild.chunks").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds every user's aggregates and waits for all chunks. Users whose stats row exists but who have
+     * no orders left lose the row, since the ranges cover both tables.
+     */
+    public Report rebuild() {
+        long start = System.nanoTime();
+        long[] orderIds = userIdRange("user_order");
+        long[] statsIds = userIdRange("user_order_stats");
+        long low = Math.min(orderIds[0], statsIds[0]);
+        long high = Math.max(orderIds[1], statsIds[1]);
+        List<Callable<Integer>> chunks = new ArrayList<>();
+        for (long chunkStart = low; chunkStart <= high; chunkStart += chunkSize) {
+            long from = chunkStart;
+            long to = Math.min(high, from + chunkSize - 1);
+            chunks.add(() -> transactionTemplate.execute(status -> {
+                jdbcTemplate.update(DELETE_CHUNK, from, to);
+                return jdbcTemplate.update(INSERT_CHUNK, from, to);
+            }));
+        }
+        List<Future<Integer>> results;
+        try {
+            results = executor.invokeAll(chunks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding order stats", e);
+        }
+        long users = 0;
+        int failed = 0;
+        for (Future<Integer> result : results) {
+            try {
+                users += result.get();
+                rebuiltCounter.increment();
+            } catch (ExecutionException e) {
+                LOGGER.warn("Order stats chunk failed to rebuild", e.getCause());
+                failed++;
+                failedCounter.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rebuilding order stats", e);
+            }
+        }
+        Report report = new Report(chunks.size(), failed, users, System.nanoTime() - start);
+        LOGGER.info("Rebuilt order stats: {}", report);
+        return report;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // {min, max} of user_id in table, or an empty range when it has no rows
+    private long[] userIdRange(String table) {
+        return jdbcTemplate.queryForObject("select min(user_id), max(user_id) from " + table, (rs, row) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? new long[] {Long.MAX_VALUE, Long.MIN_VALUE} : new long[] {min, rs.getLong(2)};
+        });
+    }
+
+    public static class Report {
+
+        private final int chunks;
+        private final int failedChunks;
+        private final long users;
+        private final long elapsedNanos;
+
+        public Report(int chunks, int failedChunks, long users, long elapsedNanos) {
+            this.chunks = chunks;
+            this.failedChunks = failedChunks;
+            this.users = users;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public int getFailedChunks() {
+            return failedChunks;
+        }
+
+        /**
+         * Users with at least one order in the chunks that succeeded.
+         */
+        public long getUsers() {
+            return users;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d users in %d chunks (%d failed) in %d ms",
+                    users, chunks, failedChunks, getElapsedMillis());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.security;
+
+import java.util.Date;
+import java.util.UUID;
+
+import com.auth0.jwt.JWT;
+
+/**
+ * Mints the short-lived access tokens handed out on login and refresh. Each carries a random
+ * {@code jti} so it can be revoked on its own.
+ */
+public final class AccessTokens {
+
+    private AccessTokens() {
+    }
+
+    /** Returns an {@code Authorization} header value for {@code username}. */
+    public static String bearer(String username) {
+        return SecurityConstants.TOKEN_PREFIX + JWT.create()
+                .withSubject(username)
+                .withJWTId(UUID.randomUUID().toString())
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+                .sign(SecurityConstants.ALGORITHM);
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.demo.security;
 
-import com.auth0.jwt.JWT;
 import com.example.demo.model.persistence.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -16,46 +21,68 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Date;
-
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import java.util.concurrent.TimeUnit;
 
 
 public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private AuthenticationManager authenticationManager;
+    private final RefreshTokenStore refreshTokens;
+    private final ObjectReader credentialsReader;
+    private final Timer filterTimer;
+    private final Counter failures;
 
-    public JWTAuthenticationFilter(AuthenticationManager authenticationManager) {
+    public JWTAuthenticationFilter(AuthenticationManager authenticationManager, RefreshTokenStore refreshTokens,
+                                   ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.authenticationManager = authenticationManager;
+        this.refreshTokens = refreshTokens;
+        this.credentialsReader = objectMapper.readerFor(User.class);
+        this.filterTimer = Timer.builder("security.filter")
+                .tag("filter", "authentication")
+                .register(meterRegistry);
+        this.failures = Counter.builder("security.auth.failures")
+                .tag("reason", "bad_credentials")
+                .register(meterRegistry);
     }
 
     @Override
     public Authentication attemptAuthentication(HttpServletRequest req,
                                                 HttpServletResponse res) throws AuthenticationException {
+        long start = System.nanoTime();
         try {
-            User credentials = new ObjectMapper()
-                    .readValue(req.getInputStream(), User.class);
+            User credentials = credentialsReader.readValue(req.getInputStream());
 
             return authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             credentials.getUsername(),
                             credentials.getPassword(),
                             new ArrayList<>()));
+        } catch (PasswordHashingRejectedException e) {
+            res.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            res.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return null;
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            filterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest req,
+                                              HttpServletResponse res,
+                                              AuthenticationException failed) throws IOException, ServletException {
+        failures.increment();
+        super.unsuccessfulAuthentication(req, res, failed);
+    }
+
     @Override
     protected void successfulAuthentication(HttpServletRequest req,
                                             HttpServletResponse res,
                                             FilterChain chain,
                                             Authentication auth) throws IOException, ServletException {
-
-        String token = JWT.create()
-                .withSubject(((org.springframework.security.core.userdetails.User) auth.getPrincipal()).getUsername())
-                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
-                .sign(HMAC512(SecurityConstants.SECRET.getBytes()));
-        res.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
+        String username = ((org.springframework.security.core.userdetails.User) auth.getPrincipal()).getUsername();
+        res.addHeader(SecurityConstants.HEADER_STRING, AccessTokens.bearer(username));
+        res.addHeader(SecurityConstants.REFRESH_TOKEN_HEADER, refreshTokens.issue(username));
     }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.example.demo.security;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -10,19 +13,47 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
-import org.springframework.stereotype.Component;
 
-import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
-@Component
 public class JWTAuthenticationVerficationFilter extends BasicAuthenticationFilter {
 
-    public JWTAuthenticationVerficationFilter(AuthenticationManager authManager) {
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + ADMIN_ROLE));
+
+    private final VerifiedTokenCache verifiedTokens;
+    private final RevokedTokens revokedTokens;
+    private final Set<String> adminUsernames;
+    private final Timer filterTimer;
+    private final Counter failures;
+    private final Counter revocations;
+
+    public JWTAuthenticationVerficationFilter(AuthenticationManager authManager, VerifiedTokenCache verifiedTokens,
+                                              RevokedTokens revokedTokens, Set<String> adminUsernames,
+                                              MeterRegistry meterRegistry) {
         super(authManager);
+        this.verifiedTokens = verifiedTokens;
+        this.revokedTokens = revokedTokens;
+        this.adminUsernames = adminUsernames;
+        this.filterTimer = Timer.builder("security.filter")
+                .tag("filter", "verification")
+                .register(meterRegistry);
+        this.failures = Counter.builder("security.auth.failures")
+                .tag("reason", "invalid_token")
+                .register(meterRegistry);
+        this.revocations = Counter.builder("security.auth.failures")
+                .tag("reason", "revoked_token")
+                .register(meterRegistry);
     }
 
     @Override
@@ -35,7 +66,16 @@ public class JWTAuthenticationVerficationFilter extends BasicAuthenticationFilte
             return;
         }
 
-        UsernamePasswordAuthenticationToken authentication = getAuthentication(req);
+        long start = System.nanoTime();
+        UsernamePasswordAuthenticationToken authentication;
+        try {
+            authentication = getAuthentication(req);
+        } catch (JWTVerificationException e) {
+            failures.increment();
+            authentication = null;
+        } finally {
+            filterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         chain.doFilter(req, res);
@@ -44,11 +84,18 @@ public class JWTAuthenticationVerficationFilter extends BasicAuthenticationFilte
     private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest req) {
         String token = req.getHeader(SecurityConstants.HEADER_STRING);
         if (token != null) {
-            String user = JWT.require(HMAC512(SecurityConstants.SECRET.getBytes())).build()
-                    .verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""))
-                    .getSubject();
-            if (user != null) {
-                return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
+            VerifiedTokenCache.VerifiedToken verified =
+                    verifiedTokens.verifyToken(token.substring(SecurityConstants.TOKEN_PREFIX.length()));
+            if (revokedTokens.isRevoked(verified.getTokenId())) {
+                revocations.increment();
+                return null;
+            }
+            if (verified.getSubject() != null) {
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(verified.getSubject(), null,
+                                adminUsernames.contains(verified.getSubject()) ? ADMIN_AUTHORITIES : Collections.emptyList());
+                authentication.setDetails(verified);
+                return authentication;
             }
             return null;
         }
@@ -0,0 +1,166 @@
+package com.example.demo.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link LoginRateLimiter} ahead of the login and sign-up endpoints and answers 429 with
+ * {@code Retry-After} when a bucket is empty. The address bucket is checked before anything is read.
+ * Only then is the body buffered, up to {@link #MAX_BODY_BYTES}, so the username can be read here and
+ * again by the endpoint itself; larger bodies get 413. The client address is the connection's remote
+ * address; behind a proxy, enable {@code server.use-forward-headers} so it reflects the real client.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    /** Credentials and sign-up requests are a few hundred bytes; this leaves ample room. */
+    public static final int MAX_BODY_BYTES = 4096;
+
+    private static final RequestMatcher LOGIN = new AntPathRequestMatcher("/login", HttpMethod.POST.name());
+    private static final RequestMatcher SIGN_UP =
+            new AntPathRequestMatcher(SecurityConstants.SIGN_UP_URL, HttpMethod.POST.name());
+
+    private final LoginRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public LoginRateLimitFilter(LoginRateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        return !LOGIN.matches(req) && !SIGN_UP.matches(req);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req,
+                                    HttpServletResponse res,
+                                    FilterChain chain) throws IOException, ServletException {
+        LoginRateLimiter.Endpoint endpoint = LOGIN.matches(req)
+                ? LoginRateLimiter.Endpoint.LOGIN : LoginRateLimiter.Endpoint.SIGNUP;
+        long waitNanos = rateLimiter.tryAcquireAddress(endpoint, req.getRemoteAddr());
+        if (waitNanos > 0) {
+            tooManyRequests(res, waitNanos);
+            return;
+        }
+        byte[] body = req.getContentLengthLong() > MAX_BODY_BYTES ? null : readBody(req.getInputStream());
+        if (body == null) {
+            res.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        String username = username(body);
+        if (username != null) {
+            waitNanos = rateLimiter.tryAcquireUsername(endpoint, username);
+            if (waitNanos > 0) {
+                tooManyRequests(res, waitNanos);
+                return;
+            }
+        }
+        chain.doFilter(new BufferedBodyRequest(req, body), res);
+    }
+
+    // the body, or null once it runs past MAX_BODY_BYTES (chunked requests declare no length)
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            if (body.size() + read > MAX_BODY_BYTES) {
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static void tooManyRequests(HttpServletResponse res, long waitNanos) {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        res.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (waitNanos + second - 1) / second)));
+    }
+
+    private String username(byte[] body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            JsonNode username = json == null ? null : json.get("username");
+            return username != null && username.isTextual() ? username.asText() : null;
+        } catch (IOException e) {
+            // malformed bodies are rejected by the endpoint; only the address bucket applies
+            return null;
+        }
+    }
+
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is already in memory, so it is available and read at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limits for the endpoints that run BCrypt without an authenticated caller. Every attempt takes a token
+ * from its client address's bucket and, when the body names one, from the username's bucket, so neither
+ * one client nor a guessing attack spread over many clients against one account can monopolise the CPU.
+ */
+@Component
+public class LoginRateLimiter {
+
+    public enum Endpoint {
+        LOGIN, SIGNUP
+    }
+
+    private final TokenBuckets addresses;
+    private final TokenBuckets usernames;
+    private final Counter[] addressRejections = new Counter[Endpoint.values().length];
+    private final Counter[] usernameRejections = new Counter[Endpoint.values().length];
+
+    @Autowired
+    public LoginRateLimiter(@Value("${security.rate-limit.ip.capacity:30}") int addressCapacity,
+                            @Value("${security.rate-limit.ip.refill-per-minute:30}") double addressRefillPerMinute,
+                            @Value("${security.rate-limit.username.capacity:10}") int usernameCapacity,
+                            @Value("${security.rate-limit.username.refill-per-minute:10}") double usernameRefillPerMinute,
+                            @Value("${security.rate-limit.max-keys:100000}") int maxKeys,
+                            @Value("${security.rate-limit.stripes:64}") int stripes,
+                            MeterRegistry meterRegistry) {
+        this.addresses = new TokenBuckets(addressCapacity, addressRefillPerMinute, maxKeys, stripes);
+        this.usernames = new TokenBuckets(usernameCapacity, usernameRefillPerMinute, maxKeys, stripes);
+        for (Endpoint endpoint : Endpoint.values()) {
+            addressRejections[endpoint.ordinal()] = rejections(meterRegistry, endpoint, "ip");
+            usernameRejections[endpoint.ordinal()] = rejections(meterRegistry, endpoint, "username");
+        }
+        Gauge.builder("security.rate-limit.keys", addresses, TokenBuckets::size).tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("security.rate-limit.keys", usernames, TokenBuckets::size).tag("key", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charges one attempt at {@code endpoint} to {@code address}. Returns 0 when the attempt may proceed,
+     * otherwise the nanoseconds until it would be allowed. Checked before the request body is read.
+     */
+    public long tryAcquireAddress(Endpoint endpoint, String address) {
+        long wait = addresses.tryAcquire(address, System.nanoTime());
+        if (wait > 0) {
+            addressRejections[endpoint.ordinal()].increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Charges one attempt at {@code endpoint} to {@code username}, once the address has been let through.
+     */
+    public long tryAcquireUsername(Endpoint endpoint, String username) {
+        long wait = usernames.tryAcquire(username, System.nanoTime());
+        if (wait > 0) {
+            usernameRejections[endpoint.ordinal()].increment();
+        }
+        return wait;
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, Endpoint endpoint, String key) {
+        return Counter.builder("security.rate-limit.rejections")
+                .tag("endpoint", endpoint.name().toLowerCase())
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
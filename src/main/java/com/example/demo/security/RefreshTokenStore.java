@@ -0,0 +1,182 @@
+package com.example.demo.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Opaque refresh tokens, kept in memory as one entry per login. Every login starts a family, and a
+ * token is the family's id plus a random secret. The entry holds only the SHA-256 of the family's
+ * current token and when that token expires. Each refresh replaces the hash, so a spent token leaves
+ * nothing behind. A presented token whose family is known but whose hash is not the current one is
+ * reuse of a stolen token and revokes the family. Expired entries are swept on a background thread.
+ */
+@Component
+public class RefreshTokenStore implements DisposableBean {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int FAMILY_ID_BYTES = 16;
+    private static final int SECRET_BYTES = 32;
+    private static final char SEPARATOR = '.';
+
+    private final Cache<String, Family> families;
+    private final long ttlMillis;
+    private final ScheduledExecutorService cleaner;
+    private final Counter rotatedCounter;
+    private final Counter reusedCounter;
+    private final Counter unknownCounter;
+
+    @Autowired
+    public RefreshTokenStore(@Value("${security.refresh-token.ttl-seconds:1209600}") long ttlSeconds,
+                             @Value("${security.refresh-token.maximum-size:100000}") long maximumSize,
+                             @Value("${security.refresh-token.cleanup-interval-seconds:60}") long cleanupIntervalSeconds,
+                             MeterRegistry meterRegistry) {
+        this.families = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        CaffeineCacheMetrics.monitor(meterRegistry, families, "refresh.tokens",
+                "cacheManager", "security", "name", "refresh.tokens");
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(families::cleanUp, cleanupIntervalSeconds, cleanupIntervalSeconds,
+                TimeUnit.SECONDS);
+        this.rotatedCounter = refreshCounter(meterRegistry, "rotated");
+        this.reusedCounter = refreshCounter(meterRegistry, "reused");
+        this.unknownCounter = refreshCounter(meterRegistry, "unknown");
+    }
+
+    /** Starts a new family for {@code username} and returns its first token. */
+    public String issue(String username) {
+        String familyId = randomString(FAMILY_ID_BYTES);
+        String token = newToken(familyId);
+        families.put(familyId, new Family(username, VerifiedTokenCache.hash(token), expiry()));
+        return token;
+    }
+
+    /**
+     * Spends {@code token} and returns the next token of its family, or {@code null} if the token is
+     * unknown, expired or revoked. Presenting a token of the family other than the current one revokes
+     * the family, as does losing a race with another use of the same token.
+     */
+    public Rotation rotate(String token) {
+        String familyId = familyId(token);
+        Family family = familyId == null ? null : families.getIfPresent(familyId);
+        if (family == null || family.expiresAt <= System.currentTimeMillis()) {
+            unknownCounter.increment();
+            return null;
+        }
+        if (!family.isCurrent(token)) {
+            families.invalidate(familyId);
+            reusedCounter.increment();
+            return null;
+        }
+        String next = newToken(familyId);
+        if (!families.asMap().replace(familyId, family,
+                new Family(family.username, VerifiedTokenCache.hash(next), expiry()))) {
+            families.invalidate(familyId);
+            reusedCounter.increment();
+            return null;
+        }
+        rotatedCounter.increment();
+        return new Rotation(family.username, next);
+    }
+
+    /** Revokes the family {@code token} belongs to, so neither it nor any later token can be used. */
+    public void revoke(String token) {
+        String familyId = familyId(token);
+        if (familyId != null) {
+            families.invalidate(familyId);
+        }
+    }
+
+    public long size() {
+        return families.estimatedSize();
+    }
+
+    @Override
+    public void destroy() {
+        cleaner.shutdownNow();
+    }
+
+    private long expiry() {
+        return System.currentTimeMillis() + ttlMillis;
+    }
+
+    private static String newToken(String familyId) {
+        return familyId + SEPARATOR + randomString(SECRET_BYTES);
+    }
+
+    private static String familyId(String token) {
+        int separator = token == null ? -1 : token.indexOf(SEPARATOR);
+        return separator <= 0 ? null : token.substring(0, separator);
+    }
+
+    private static String randomString(int bytes) {
+        byte[] random = new byte[bytes];
+        RANDOM.nextBytes(random);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("security.refresh").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    public static final class Rotation {
+
+        private final String username;
+        private final String token;
+
+        private Rotation(String username, String token) {
+            this.username = username;
+            this.token = token;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+
+    private static final class Family {
+
+        private final String username;
+        private final String tokenHash;
+        private final long expiresAt;
+
+        private Family(String username, String tokenHash, long expiresAt) {
+            this.username = username;
+            this.tokenHash = tokenHash;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isCurrent(String token) {
+            return MessageDigest.isEqual(tokenHash.getBytes(StandardCharsets.US_ASCII),
+                    VerifiedTokenCache.hash(token).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
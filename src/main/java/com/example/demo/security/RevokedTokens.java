@@ -0,0 +1,214 @@
+package com.example.demo.security;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Denylist of revoked access tokens, keyed by token id ({@code jti}). The per-request check reads a
+ * Bloom filter and only consults the exact set when the filter says the id might be present, so an
+ * unrevoked token costs a handful of array reads. Entries are dropped once the token itself has
+ * expired: each one sits on a hashed timing wheel at its expiry tick, and the wheel is advanced on a
+ * background thread. As expired ids leave stale bits behind, the filter is rebuilt from the exact set.
+ */
+@Component
+public class RevokedTokens implements DisposableBean {
+
+    private static final int MIN_STALE_BEFORE_REBUILD = 64;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final List<Pending>[] wheel;
+    private final long tickMillis;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final ScheduledExecutorService ticker;
+    private volatile BloomFilter bloom;
+    private long currentTick;
+    private int staleSinceRebuild;
+
+    @Autowired
+    public RevokedTokens(@Value("${security.revocation.expected-entries:100000}") int expectedEntries,
+                         @Value("${security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                         @Value("${security.revocation.tick-ms:1000}") long tickMillis,
+                         @Value("${security.revocation.wheel-slots:1024}") int wheelSlots,
+                         MeterRegistry meterRegistry) {
+        this(expectedEntries, falsePositiveRate, tickMillis, wheelSlots, meterRegistry, true);
+    }
+
+    public RevokedTokens(int expectedEntries, double falsePositiveRate, long tickMillis, int wheelSlots,
+                         MeterRegistry meterRegistry, boolean startTicker) {
+        this.expectedEntries = Math.max(1, expectedEntries);
+        this.falsePositiveRate = falsePositiveRate;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.bloom = new BloomFilter(this.expectedEntries, falsePositiveRate);
+        int slots = Integer.highestOneBit(Math.max(2, wheelSlots) - 1) << 1;
+        @SuppressWarnings("unchecked")
+        List<Pending>[] buckets = new List[slots];
+        for (int i = 0; i < slots; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.wheel = buckets;
+        this.currentTick = System.currentTimeMillis() / this.tickMillis;
+        Gauge.builder("security.revocation.entries", revoked, Map::size).register(meterRegistry);
+        if (startTicker) {
+            this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "token-revocation-wheel");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(() -> advance(System.currentTimeMillis()), this.tickMillis, this.tickMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.ticker = null;
+        }
+    }
+
+    /**
+     * Denies the token with id {@code tokenId} until {@code expiresAtMillis}, after which the token is
+     * rejected for having expired anyway. Ids of tokens that have already expired are ignored.
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (lock) {
+            if (revoked.putIfAbsent(tokenId, expiresAtMillis) != null) {
+                return;
+            }
+            bloom.add(tokenId);
+            long tick = Math.max(ceilDiv(expiresAtMillis, tickMillis), currentTick + 1);
+            wheel[(int) (tick & (wheel.length - 1))].add(new Pending(tokenId, tick));
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && bloom.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis}, dropping every entry whose tick has passed. A wheel that
+     * fell behind by more than a full turn sweeps each slot once.
+     */
+    public void advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        synchronized (lock) {
+            long steps = Math.min(target - currentTick, wheel.length);
+            for (long step = 1; step <= steps; step++) {
+                Iterator<Pending> slot = wheel[(int) ((currentTick + step) & (wheel.length - 1))].iterator();
+                while (slot.hasNext()) {
+                    Pending pending = slot.next();
+                    if (pending.tick <= target) {
+                        slot.remove();
+                        revoked.remove(pending.tokenId);
+                        staleSinceRebuild++;
+                    }
+                }
+            }
+            currentTick = Math.max(currentTick, target);
+            if (staleSinceRebuild >= Math.max(MIN_STALE_BEFORE_REBUILD, revoked.size())) {
+                BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, 2 * revoked.size()), falsePositiveRate);
+                revoked.keySet().forEach(rebuilt::add);
+                bloom = rebuilt;
+                staleSinceRebuild = 0;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static final class Pending {
+
+        private final String tokenId;
+        private final long tick;
+
+        private Pending(String tokenId, long tick) {
+            this.tokenId = tokenId;
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * Bits are only set while holding the owner's lock; readers see them through the array's volatile
+     * semantics. Indexes come from one 64-bit hash split in two (Kirsch-Mitzenmacher double hashing).
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        private BloomFilter(int expectedEntries, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) >>> 6));
+            this.bits = (long) words.length() << 6;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / expectedEntries * Math.log(2)));
+        }
+
+        private void add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bits;
+                int word = (int) (bit >>> 6);
+                words.set(word, words.get(word) | (1L << bit));
+            }
+        }
+
+        private boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bits;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the chars, finished with the MurmurHash3 mixer
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.demo.security;
 
+import com.auth0.jwt.algorithms.Algorithm;
+
 public class SecurityConstants {
     public static final String SECRET = "oursecretkey";
-    public static final long EXPIRATION_TIME = 864_000_000; // 10 days
+    public static final long EXPIRATION_TIME = 900_000; // 15 minutes; clients renew through REFRESH_URL
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String HEADER_STRING = "Authorization";
+    public static final String REFRESH_TOKEN_HEADER = "Refresh-Token";
     public static final String SIGN_UP_URL = "/api/user/create";
-}
\ No newline at end of file
+    public static final String REFRESH_URL = "/refresh";
+    public static final String LOGOUT_URL = "/logout";
+    public static final String ADMIN_URLS = "/api/admin/**";
+    public static final Algorithm ALGORITHM = Algorithm.HMAC512(SECRET.getBytes());
+}
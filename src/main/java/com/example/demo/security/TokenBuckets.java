@@ -0,0 +1,100 @@
+package com.example.demo.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets keyed by an arbitrary string, split over lock stripes. Each stripe is an access-ordered
+ * map capped at its share of {@code maxKeys}, so the least recently used keys are dropped first. A bucket
+ * left alone long enough to refill completely is indistinguishable from a new one; such idle buckets are
+ * trimmed from the head of the stripe whenever it is touched, which keeps memory proportional to the keys
+ * seen in the last refill period without a background sweeper.
+ */
+public class TokenBuckets {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long idleNanos;
+    private final Stripe[] stripes;
+
+    public TokenBuckets(int capacity, double refillPerMinute, int maxKeys, int stripeCount) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerNano = refillPerMinute / 60e9;
+        this.idleNanos = (long) Math.ceil(this.capacity / tokensPerNano);
+        int count = Integer.highestOneBit(Math.max(2, stripeCount) - 1) << 1;
+        int keysPerStripe = Math.max(1, maxKeys / count);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+    }
+
+    /**
+     * Takes one token from {@code key}'s bucket at {@code nowNanos} (a {@link System#nanoTime()} reading).
+     * Returns 0 when the request may proceed, otherwise how many nanoseconds until a token is available.
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        synchronized (stripe) {
+            stripe.evictIdle(nowNanos);
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, nowNanos);
+                stripe.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (nowNanos - bucket.updatedAt) * tokensPerNano);
+                bucket.updatedAt = nowNanos;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / tokensPerNano));
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private final class Stripe extends LinkedHashMap<String, Bucket> {
+
+        private final int maxKeys;
+
+        private Stripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        private void evictIdle(long nowNanos) {
+            Iterator<Bucket> buckets = values().iterator();
+            while (buckets.hasNext() && nowNanos - buckets.next().updatedAt >= idleNanos) {
+                buckets.remove();
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxKeys;
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.demo.security;
 
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.datasource.ReadWriteRoutingDataSource;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -17,12 +25,52 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    // Only the password hash is cached: Spring erases credentials on the UserDetails it is handed,
+    // so every call builds a fresh instance.
+    private final Cache<String, String> passwordHashes;
+    private final Cache<String, Boolean> unknownUsernames;
+
+    public UserDetailsServiceImpl(@Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${security.user-cache.ttl-seconds:600}") long ttlSeconds,
+                                  @Value("${security.user-cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                                  MeterRegistry meterRegistry) {
+        this.passwordHashes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.unknownUsernames = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, passwordHashes, "userdetails",
+                "cacheManager", "security", "name", "userdetails");
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownUsernames, "userdetails.unknown",
+                "cacheManager", "security", "name", "userdetails.unknown");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username);
-        if (user == null) {
-            throw new UsernameNotFoundException(username);
+        String password = passwordHashes.getIfPresent(username);
+        if (password == null) {
+            if (unknownUsernames.getIfPresent(username) != null) {
+                throw new UsernameNotFoundException(username);
+            }
+            // the caller is not authenticated yet, so route as the user being looked up
+            User user = ReadWriteRoutingDataSource.onBehalfOf(username, () -> userRepository.findByUsername(username));
+            if (user == null) {
+                unknownUsernames.put(username, Boolean.TRUE);
+                throw new UsernameNotFoundException(username);
+            }
+            password = user.getPassword();
+            passwordHashes.put(username, password);
         }
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), Collections.emptyList());
+        return new org.springframework.security.core.userdetails.User(username, password, Collections.emptyList());
+    }
+
+    public void evict(String username) {
+        passwordHashes.invalidate(username);
+        unknownUsernames.invalidate(username);
     }
 }
\ No newline at end of file
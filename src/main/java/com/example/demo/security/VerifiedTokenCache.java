@@ -0,0 +1,135 @@
+package com.example.demo.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers the subject and id of tokens that already passed signature verification,
+ * keyed by the SHA-256 of the token, until the token's own expiry.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final JWTVerifier VERIFIER = JWT.require(SecurityConstants.ALGORITHM).build();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${security.jwt.verified-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${security.jwt.verified-cache.max-ttl-seconds:300}") long maxTtlSeconds,
+                              MeterRegistry meterRegistry) {
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(value.expiresAt - System.currentTimeMillis());
+                        return Math.max(0, Math.min(remaining, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified",
+                "cacheManager", "security", "name", "jwt.verified");
+    }
+
+    /**
+     * Returns the subject of the token, verifying its signature and expiry
+     * only if it has not been seen before.
+     *
+     * @throws com.auth0.jwt.exceptions.JWTVerificationException if the token is invalid
+     */
+    public String verify(String token) {
+        return verifyToken(token).getSubject();
+    }
+
+    /**
+     * Like {@link #verify(String)}, but returns the token's id and expiry along with its subject.
+     *
+     * @throws com.auth0.jwt.exceptions.JWTVerificationException if the token is invalid
+     */
+    public VerifiedToken verifyToken(String token) {
+        String key = hash(token);
+        VerifiedToken verified = cache.getIfPresent(key);
+        if (verified == null) {
+            DecodedJWT jwt = VERIFIER.verify(token);
+            Date expiresAt = jwt.getExpiresAt();
+            verified = new VerifiedToken(jwt.getSubject(), jwt.getId(),
+                    expiresAt == null ? Long.MAX_VALUE : expiresAt.getTime());
+            cache.put(key, verified);
+        }
+        return verified;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    static String hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    public static final class VerifiedToken {
+        private final String subject;
+        private final String tokenId;
+        private final long expiresAt;
+
+        private VerifiedToken(String subject, String tokenId, long expiresAt) {
+            this.subject = subject;
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        /** The token's {@code jti}, or {@code null} for tokens issued without one. */
+        public String getTokenId() {
+            return tokenId;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.demo.security;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,28 +13,60 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @EnableWebSecurity
 public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     private UserDetailsServiceImpl userDetailsService;
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private PasswordEncoder passwordEncoder;
+    private VerifiedTokenCache verifiedTokenCache;
+    private RefreshTokenStore refreshTokenStore;
+    private RevokedTokens revokedTokens;
+    private LoginRateLimiter loginRateLimiter;
+    private Set<String> adminUsernames;
+    private ObjectMapper objectMapper;
+    private MeterRegistry meterRegistry;
 
     public WebSecurityConfiguration(UserDetailsServiceImpl userDetailsService,
-                                    BCryptPasswordEncoder bCryptPasswordEncoder) {
+                                    PasswordEncoder passwordEncoder,
+                                    VerifiedTokenCache verifiedTokenCache,
+                                    RefreshTokenStore refreshTokenStore,
+                                    RevokedTokens revokedTokens,
+                                    LoginRateLimiter loginRateLimiter,
+                                    @Value("${security.admin-usernames:}") String[] adminUsernames,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.passwordEncoder = passwordEncoder;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.refreshTokenStore = refreshTokenStore;
+        this.revokedTokens = revokedTokens;
+        this.loginRateLimiter = loginRateLimiter;
+        this.adminUsernames = new HashSet<>(Arrays.asList(adminUsernames));
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.cors().and().csrf().disable().authorizeRequests()
                 .antMatchers(HttpMethod.POST, SecurityConstants.SIGN_UP_URL).permitAll()
+                .antMatchers(HttpMethod.POST, SecurityConstants.REFRESH_URL).permitAll()
+                .antMatchers(SecurityConstants.ADMIN_URLS).hasRole(JWTAuthenticationVerficationFilter.ADMIN_ROLE)
                 .anyRequest().authenticated()
                 .and()
-                .addFilter(new JWTAuthenticationFilter(authenticationManager()))
-                .addFilter(new JWTAuthenticationVerficationFilter(authenticationManager()))
+                .logout().disable()
+                .addFilterBefore(new LoginRateLimitFilter(loginRateLimiter, objectMapper),
+                        UsernamePasswordAuthenticationFilter.class)
+                .addFilter(new JWTAuthenticationFilter(authenticationManager(), refreshTokenStore, objectMapper, meterRegistry))
+                .addFilter(new JWTAuthenticationVerficationFilter(authenticationManager(), verifiedTokenCache,
+                        revokedTokens, adminUsernames, meterRegistry))
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
     }
 
@@ -41,8 +78,7 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.parentAuthenticationManager(authenticationManagerBean())
-                .userDetailsService(userDetailsService)
-                .passwordEncoder(bCryptPasswordEncoder);
+        auth.userDetailsService(userDetailsService)
+                .passwordEncoder(passwordEncoder);
     }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.demo.users;
+
+public class ProvisioningRejectedException extends RuntimeException {
+
+    public ProvisioningRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.demo.users;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.ProvisioningReport;
+import com.example.demo.model.responses.ProvisioningReport.RowFailure;
+import com.example.demo.security.UserDetailsServiceImpl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Creates users in bulk from a stream of signup requests, one chunk at a time. Invalid rows and
+ * usernames that already exist (one query per chunk) are reported and skipped, the remaining passwords
+ * are hashed in parallel, and the chunk is inserted in a single batched transaction. A chunk whose insert
+ * fails is retried row by row so that only the offending rows are reported.
+ * <p>
+ * Hashing runs on a small pool of its own and only {@code max-concurrent-jobs} streams are provisioned
+ * at once; further jobs are refused with {@link ProvisioningRejectedException}. A bulk import therefore
+ * uses a fixed slice of the CPU and leaves the rest to {@code /login} and sign-up.
+ */
+@Component
+public class UserProvisioner implements DisposableBean {
+
+    private final UserRepository userRepository;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final PasswordEncoder encoder;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashingExecutor;
+    private final Semaphore jobs;
+    private final int chunkSize;
+    private final Counter createdCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public UserProvisioner(UserRepository userRepository,
+                           UserDetailsServiceImpl userDetailsService,
+                           BCryptPasswordEncoder encoder,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${users.provisioning.hashing-threads:0}") int hashingThreads,
+                           @Value("${users.provisioning.max-concurrent-jobs:1}") int maxConcurrentJobs,
+                           @Value("${users.provisioning.chunk-size:500}") int chunkSize,
+                           MeterRegistry meterRegistry) {
+        this(userRepository, userDetailsService, (PasswordEncoder) encoder, transactionManager, hashingThreads,
+                maxConcurrentJobs, chunkSize, meterRegistry);
+    }
+
+    public UserProvisioner(UserRepository userRepository, UserDetailsServiceImpl userDetailsService,
+                           PasswordEncoder encoder, PlatformTransactionManager transactionManager,
+                           int hashingThreads, int maxConcurrentJobs, int chunkSize, MeterRegistry meterRegistry) {
+        // a quarter of the processors unless configured, so login hashing keeps most of the CPU
+        int poolSize = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
+        this.encoder = encoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hashingExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "user-provisioning-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.jobs = new Semaphore(Math.max(1, maxConcurrentJobs));
+        this.chunkSize = chunkSize;
+        this.createdCounter = Counter.builder("users.provisioned").tag("outcome", "created").register(meterRegistry);
+        this.failedCounter = Counter.builder("users.provisioned").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Returns the reason {@code request} cannot create a user, or {@code null} when it is acceptable.
+     */
+    public static String validate(CreateUserRequest request) {
+        if (request == null || request.getUsername() == null || request.getUsername().isEmpty()) {
+            return "Username cannot be empty";
+        }
+        if (request.getPassword() == null || request.getPassword().length() < 8) {
+            return "Password must be at least 8 characters long";
+        }
+        if (!request.getPassword().equals(request.getConfirmPassword())) {
+            return "Passwords do not match";
+        }
+        return null;
+    }
+
+    /**
+     * Provisions every request {@code requests} yields. Rows are numbered from 0 in stream order; an
+     * iterator that fails (malformed input) ends the stream with a failure for that row, keeping the rows
+     * read before it. Throws {@link ProvisioningRejectedException} without reading anything when the
+     * maximum number of jobs is already running.
+     */
+    public ProvisioningReport provision(Iterator<CreateUserRequest> requests) {
+        if (!jobs.tryAcquire()) {
+            throw new ProvisioningRejectedException("Too many bulk provisioning jobs running");
+        }
+        try {
+            return provisionAll(requests);
+        } finally {
+            jobs.release();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        hashingExecutor.shutdownNow();
+    }
+
+    private ProvisioningReport provisionAll(Iterator<CreateUserRequest> requests) {
+        List<RowFailure> failures = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int received = 0;
+        int created = 0;
+        while (true) {
+            CreateUserRequest request;
+            try {
+                if (!requests.hasNext()) {
+                    break;
+                }
+                request = requests.next();
+            } catch (RuntimeException e) {
+                failures.add(new RowFailure(received++, null, "Malformed row"));
+                break;
+            }
+            int row = received++;
+            String error = validate(request);
+            if (error == null && !seen.add(request.getUsername())) {
+                error = "Username appears more than once";
+            }
+            if (error != null) {
+                failures.add(new RowFailure(row, request == null ? null : request.getUsername(), error));
+                continue;
+            }
+            chunk.add(new Row(row, request));
+            if (chunk.size() == chunkSize) {
+                created += provisionChunk(chunk, failures);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += provisionChunk(chunk, failures);
+        }
+        failures.sort(Comparator.comparingInt(RowFailure::getRow));
+        createdCounter.increment(created);
+        failedCounter.increment(failures.size());
+        return new ProvisioningReport(received, created, failures);
+    }
+
+    private int provisionChunk(List<Row> chunk, List<RowFailure> failures) {
+        List<String> usernames = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            usernames.add(row.username);
+        }
+        Set<String> existing = transactionTemplate.execute(status -> userRepository.findExistingUsernames(usernames));
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (existing.contains(row.username)) {
+                failures.add(new RowFailure(row.index, row.username, "Username already exists"));
+            } else {
+                fresh.add(row);
+            }
+        }
+        List<Row> hashed = hashPasswords(fresh, failures);
+        if (hashed.isEmpty()) {
+            return 0;
+        }
+        List<Row> saved;
+        try {
+            transactionTemplate.execute(status -> userRepository.saveAll(newUsers(hashed)));
+            saved = hashed;
+        } catch (DataAccessException e) {
+            saved = saveOneByOne(hashed, failures);
+        }
+        for (Row row : saved) {
+            userDetailsService.evict(row.username);
+        }
+        return saved.size();
+    }
+
+    private List<Row> hashPasswords(List<Row> rows, List<RowFailure> failures) {
+        List<Callable<String>> tasks = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            tasks.add(() -> encoder.encode(row.password));
+        }
+        List<Future<String>> hashes;
+        try {
+            hashes = hashingExecutor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        }
+        List<Row> hashed = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            try {
+                row.hash = hashes.get(i).get();
+                hashed.add(row);
+            } catch (ExecutionException e) {
+                failures.add(new RowFailure(row.index, row.username, "Password could not be hashed"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while hashing passwords", e);
+            }
+        }
+        return hashed;
+    }
+
+    private List<Row> saveOneByOne(List<Row> rows, List<RowFailure> failures) {
+        List<Row> saved = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            try {
+                transactionTemplate.execute(status -> userRepository.save(newUser(row)));
+                saved.add(row);
+            } catch (DataIntegrityViolationException e) {
+                failures.add(new RowFailure(row.index, row.username, "Username already exists"));
+            } catch (DataAccessException e) {
+                failures.add(new RowFailure(row.index, row.username, "User could not be saved"));
+            }
+        }
+        return saved;
+    }
+
+    private static List<User> newUsers(List<Row> rows) {
+        List<User> users = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            users.add(newUser(row));
+        }
+        return users;
+    }
+
+    private static User newUser(Row row) {
+        User user = new User();
+        user.setUsername(row.username);
+        user.setPassword(row.hash);
+        user.setCart(new Cart());
+        return user;
+    }
+
+    private static class Row {
+
+        private final int index;
+        private final String username;
+        private final String password;
+        private String hash;
+
+        private Row(int index, CreateUserRequest request) {
+            this.index = index;
+            this.username = request.getUsername();
+            this.password = request.getPassword();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo;
+
+import com.example.demo.security.BoundedPasswordEncoder;
+import com.example.demo.security.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BoundedPasswordEncoderTest {
+
+    private PasswordEncoder delegateMock = mock(PasswordEncoder.class);
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @After
+    public void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    public void testEncodeAndMatches_RunOnPool() {
+        encoder = new BoundedPasswordEncoder(delegateMock, 2, 4, meterRegistry);
+        when(delegateMock.encode("password123")).thenReturn("hash");
+        when(delegateMock.matches("password123", "hash")).thenReturn(true);
+
+        Assertions.assertEquals("hash", encoder.encode("password123"));
+        Assertions.assertTrue(encoder.matches("password123", "hash"));
+        Assertions.assertEquals(1, meterRegistry.get("password.hash").tag("operation", "encode").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    public void testEncode_RejectsWhenSaturated() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegateMock, 1, 1, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegateMock.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (encoder.getQueueSize() == 0) {
+            Thread.sleep(1);
+        }
+
+        Assertions.assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("third"));
+
+        release.countDown();
+        Assertions.assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+}
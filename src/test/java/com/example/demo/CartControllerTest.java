@@ -1,5 +1,6 @@
 package com.example.demo;
 
+import com.example.demo.carts.CartUpdater;
 import com.example.demo.controllers.CartController;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
@@ -7,17 +8,30 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BatchModifyCartRequest;
+import com.example.demo.model.requests.CartItemDelta;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.responses.CartDetail;
+import com.example.demo.model.responses.LineItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class CartControllerTest {
@@ -34,6 +48,9 @@ public class CartControllerTest {
         FieldInjector.injectObjects(cartController, "userRepository", userRepoMock);
         FieldInjector.injectObjects(cartController, "cartRepository", cartRepoMock);
         FieldInjector.injectObjects(cartController, "itemRepository", itemRepoMock);
+        FieldInjector.injectObjects(cartController, "cartUpdater",
+                new CartUpdater(mock(PlatformTransactionManager.class), 16, 3, new SimpleMeterRegistry()));
+        FieldInjector.injectObjects(cartController, "entityManager", mock(EntityManager.class));
     }
 
     @Test
@@ -50,16 +67,91 @@ public class CartControllerTest {
         request.setQuantity(1);
         request.setUsername(testUser.getUsername());
 
-        ResponseEntity<Cart> response = cartController.addTocart(request);
+        ResponseEntity<CartDetail> response = cartController.addTocart(request);
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(200, response.getStatusCodeValue());
 
-        Cart cart = response.getBody();
+        CartDetail cart = response.getBody();
         Assertions.assertNotNull(cart);
         Assertions.assertEquals(11, cart.getTotal().intValue());
     }
 
+    @Test
+    public void testAddItemToCart_LargeQuantityIsSingleLine() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        Item item = createItem();
+        when(itemRepoMock.findById(1L)).thenReturn(Optional.of(item));
+
+        ModifyCartRequest request = new ModifyCartRequest();
+        request.setItemId(1);
+        request.setQuantity(5000);
+        request.setUsername(testUser.getUsername());
+
+        cartController.addTocart(request);
+        ResponseEntity<CartDetail> response = cartController.addTocart(request);
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        CartDetail cart = response.getBody();
+        Assertions.assertEquals(1, cart.getItems().size());
+        LineItem line = cart.getItems().get(0);
+        Assertions.assertEquals(1L, line.getItemId());
+        Assertions.assertEquals(item.getName(), line.getName());
+        Assertions.assertEquals(10000, line.getQuantity());
+        Assertions.assertEquals(0, new BigDecimal("50000.00").compareTo(line.getLineTotal()));
+        Assertions.assertEquals(0, new BigDecimal("50000.00").compareTo(cart.getTotal()));
+    }
+
+    @Test
+    public void testRemoveItemFromCart_Success() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        Item item = createItem();
+        when(itemRepoMock.findById(1L)).thenReturn(Optional.of(item));
+        testUser.getCart().addItem(item, 3);
+
+        ModifyCartRequest request = new ModifyCartRequest();
+        request.setItemId(1);
+        request.setQuantity(2);
+        request.setUsername(testUser.getUsername());
+
+        ResponseEntity<CartDetail> response = cartController.removeFromcart(request);
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals(1, response.getBody().getItems().get(0).getQuantity());
+        Assertions.assertEquals(0, new BigDecimal("5.00").compareTo(response.getBody().getTotal()));
+
+        response = cartController.removeFromcart(request);
+        Assertions.assertEquals(0, testUser.getCart().getQuantity(item));
+        Assertions.assertTrue(response.getBody().getItems().isEmpty());
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(response.getBody().getTotal()));
+    }
+
+    @Test
+    public void testRemoveItemFromCart_AfterPriceChangeLeavesEmptyCartAtZero() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        Item item = createItem();
+        testUser.getCart().addItem(item, 3);
+        Item repriced = createItem();
+        repriced.setPrice(new BigDecimal("7.25"));
+        when(itemRepoMock.findById(1L)).thenReturn(Optional.of(repriced));
+
+        ModifyCartRequest request = new ModifyCartRequest();
+        request.setItemId(1);
+        request.setQuantity(1);
+        request.setUsername(testUser.getUsername());
+
+        ResponseEntity<CartDetail> response = cartController.removeFromcart(request);
+        Assertions.assertEquals(0, new BigDecimal("10.00").compareTo(response.getBody().getItems().get(0).getLineTotal()));
+        Assertions.assertEquals(0, new BigDecimal("10.00").compareTo(response.getBody().getTotal()));
+
+        request.setQuantity(2);
+        response = cartController.removeFromcart(request);
+        Assertions.assertTrue(response.getBody().getItems().isEmpty());
+        Assertions.assertEquals(0, testUser.getCart().getTotalCents());
+    }
+
     @Test
     public void testAddItemToCart_UserNotFound() {
         when(userRepoMock.findByUsername("nonexistentUser")).thenReturn(null);
@@ -73,7 +165,7 @@ public class CartControllerTest {
         request.setQuantity(2);
         request.setUsername("nonexistentUser");
 
-        ResponseEntity<Cart> response = cartController.addTocart(request);
+        ResponseEntity<CartDetail> response = cartController.addTocart(request);
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(404, response.getStatusCodeValue());
@@ -91,7 +183,7 @@ public class CartControllerTest {
         request.setQuantity(2);
         request.setUsername(testUser.getUsername());
 
-        ResponseEntity<Cart> response = cartController.addTocart(request);
+        ResponseEntity<CartDetail> response = cartController.addTocart(request);
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(404, response.getStatusCodeValue());
@@ -110,7 +202,7 @@ public class CartControllerTest {
         request.setQuantity(2);
         request.setUsername("nonexistentUser");
 
-        ResponseEntity<Cart> response = cartController.removeFromcart(request);
+        ResponseEntity<CartDetail> response = cartController.removeFromcart(request);
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(404, response.getStatusCodeValue());
@@ -128,12 +220,76 @@ public class CartControllerTest {
         request.setQuantity(2);
         request.setUsername(testUser.getUsername());
 
-        ResponseEntity<Cart> response = cartController.removeFromcart(request);
+        ResponseEntity<CartDetail> response = cartController.removeFromcart(request);
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(404, response.getStatusCodeValue());
     }
 
+    @Test
+    public void testBatchModifyCart_Success() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        Item first = createItem();
+        Item second = createItem();
+        second.setId(2L);
+        second.setPrice(new BigDecimal("2.50"));
+        testUser.getCart().addItem(second, 4);
+        when(itemRepoMock.findAllById(anyIterable())).thenReturn(Arrays.asList(first, second));
+
+        BatchModifyCartRequest request = new BatchModifyCartRequest();
+        request.setUsername(testUser.getUsername());
+        request.setOperations(Arrays.asList(createDelta(1L, 3), createDelta(2L, -1), createDelta(1L, 1)));
+
+        ResponseEntity<CartDetail> response = cartController.batchModifyCart(request);
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Cart cart = testUser.getCart();
+        Assertions.assertEquals(4, cart.getQuantity(first));
+        Assertions.assertEquals(3, cart.getQuantity(second));
+        Assertions.assertEquals(2, response.getBody().getItems().size());
+        Assertions.assertEquals(0, new BigDecimal("27.50").compareTo(response.getBody().getTotal()));
+        verify(itemRepoMock, times(1)).findAllById(anyIterable());
+        verify(cartRepoMock, times(1)).save(cart);
+    }
+
+    @Test
+    public void testBatchModifyCart_ItemNotFound() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        when(itemRepoMock.findAllById(anyIterable())).thenReturn(Collections.singletonList(createItem()));
+
+        BatchModifyCartRequest request = new BatchModifyCartRequest();
+        request.setUsername(testUser.getUsername());
+        request.setOperations(Arrays.asList(createDelta(1L, 1), createDelta(2L, 1)));
+
+        ResponseEntity<CartDetail> response = cartController.batchModifyCart(request);
+
+        Assertions.assertEquals(404, response.getStatusCodeValue());
+        Assertions.assertTrue(testUser.getCart().getItems().isEmpty());
+        verify(cartRepoMock, never()).save(any(Cart.class));
+    }
+
+    @Test
+    public void testBatchModifyCart_UserNotFound() {
+        when(userRepoMock.findByUsername("nonexistentUser")).thenReturn(null);
+
+        BatchModifyCartRequest request = new BatchModifyCartRequest();
+        request.setUsername("nonexistentUser");
+        request.setOperations(Collections.singletonList(createDelta(1L, 1)));
+
+        ResponseEntity<CartDetail> response = cartController.batchModifyCart(request);
+
+        Assertions.assertEquals(404, response.getStatusCodeValue());
+    }
+
+    private CartItemDelta createDelta(long itemId, int delta) {
+        CartItemDelta operation = new CartItemDelta();
+        operation.setItemId(itemId);
+        operation.setDelta(delta);
+        return operation;
+    }
+
     private User createUser(long id, String username) {
         User user = new User();
         user.setId(id);
@@ -0,0 +1,84 @@
+package com.example.demo;
+
+import com.example.demo.carts.CartUpdater;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+public class CartUpdaterTest {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CartUpdater cartUpdater = new CartUpdater(mock(PlatformTransactionManager.class), 16, 3, meterRegistry);
+
+    @Test
+    public void testConflictIsRetriedInFreshAttempt() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        ResponseEntity<String> response = cartUpdater.update("alice", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException("Cart", 1L);
+            }
+            return ResponseEntity.ok("updated");
+        });
+
+        Assertions.assertEquals("updated", response.getBody());
+        Assertions.assertEquals(2, attempts.get());
+        Assertions.assertEquals(1.0, meterRegistry.get("cart.update.conflicts").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    public void testPersistentConflictAnswersConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        ResponseEntity<String> response = cartUpdater.update("alice", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Cart", 1L);
+        });
+
+        Assertions.assertEquals(409, response.getStatusCodeValue());
+        Assertions.assertEquals(3, attempts.get());
+        Assertions.assertEquals(1.0, meterRegistry.get("cart.update.conflicts").tag("outcome", "abandoned").counter().count());
+    }
+
+    @Test
+    public void testSameUserUpdatesDoNotOverlap() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        int[] quantity = new int[1];
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(pool.submit(() -> cartUpdater.update("alice", () -> {
+                if (inside.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                int read = quantity[0];
+                Thread.yield();
+                quantity[0] = read + 1;
+                inside.decrementAndGet();
+                return ResponseEntity.ok().build();
+            })));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        Assertions.assertEquals(0, overlaps.get());
+        Assertions.assertEquals(200, quantity[0]);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo;
+
+import com.example.demo.catalog.CatalogImporter;
+import com.example.demo.catalog.ItemCacheInvalidator;
+import com.example.demo.catalog.ItemSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class CatalogImporterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ItemSearchIndex searchIndexMock = mock(ItemSearchIndex.class);
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CatalogImporter importer;
+
+    @Before
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:catalog-import;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists item");
+        jdbcTemplate.execute("drop sequence if exists item_seq");
+        jdbcTemplate.execute("create table item (id bigint primary key, name varchar(255) not null, "
+                + "description varchar(255) not null, price_cents bigint not null)");
+        jdbcTemplate.execute("create sequence item_seq start with 1 increment by 50");
+        importer = new CatalogImporter(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                new ItemCacheInvalidator(new ConcurrentMapCacheManager()), searchIndexMock, new ObjectMapper(),
+                new DefaultResourceLoader(), "", 2, 0, meterRegistry);
+    }
+
+    @Test
+    public void testCsvRowsAreUpsertedAndIdsAllocatedFromSequence() throws Exception {
+        CatalogImporter.Report report = importer.importCsv(new StringReader(
+                "id,name,description,price,colour\n"
+                        + "1,Round Widget,A widget that is round,2.99,red\n"
+                        + ",\"Widget, Deluxe\",\"Says \"\"hello\"\"\nover two lines\",10,blue\n"
+                        + ",Cheap Widget,A widget,0.5,green\n"));
+
+        Assertions.assertEquals(3, report.getImported());
+        Assertions.assertEquals(0, report.getRejected());
+        Map<String, Object> deluxe = jdbcTemplate.queryForMap("select * from item where name = 'Widget, Deluxe'");
+        Assertions.assertEquals("Says \"hello\"\nover two lines", deluxe.get("DESCRIPTION"));
+        Assertions.assertEquals(1000L, deluxe.get("PRICE_CENTS"));
+        Assertions.assertEquals(Long.valueOf(2L), jdbcTemplate.queryForObject("select count(*) from item where id > 1", Long.class));
+        Assertions.assertTrue(jdbcTemplate.queryForObject("select next value for item_seq", Long.class) > 1);
+        verify(searchIndexMock).rebuild();
+
+        importer.importCsv(new StringReader("id,name,description,price\n1,Round Widget,Now rounder,3.49\n"));
+
+        Assertions.assertEquals("Now rounder", jdbcTemplate.queryForObject("select description from item where id = 1", String.class));
+        Assertions.assertEquals(Long.valueOf(349L), jdbcTemplate.queryForObject("select price_cents from item where id = 1", Long.class));
+        Assertions.assertEquals(Long.valueOf(3L), jdbcTemplate.queryForObject("select count(*) from item", Long.class));
+    }
+
+    @Test
+    public void testInvalidRowsAreReportedAndSkipped() throws Exception {
+        CatalogImporter.Report report = importer.importNdjson(new StringReader(
+                "{\"name\":\"Good\",\"description\":\"fine\",\"price\":1.25}\n"
+                        + "\n"
+                        + "{\"name\":\"\",\"description\":\"no name\",\"price\":1}\n"
+                        + "{\"name\":\"Negative\",\"description\":\"x\",\"price\":-1}\n"
+                        + "{\"name\":\"Precise\",\"description\":\"x\",\"price\":1.001}\n"
+                        + "{not json\n"
+                        + "{\"id\":\"abc\",\"name\":\"Bad id\",\"description\":\"x\",\"price\":1}\n"));
+
+        Assertions.assertEquals(6, report.getRows());
+        Assertions.assertEquals(1, report.getImported());
+        Assertions.assertEquals(5, report.getRejected());
+        Assertions.assertEquals(3, report.getFailures().get(0).getRow());
+        Assertions.assertEquals("Name is required", report.getFailures().get(0).getReason());
+        Assertions.assertEquals("Price cannot be negative", report.getFailures().get(1).getReason());
+        Assertions.assertEquals("Price has more than 2 decimal places", report.getFailures().get(2).getReason());
+        Assertions.assertEquals("Malformed JSON", report.getFailures().get(3).getReason());
+        Assertions.assertEquals("Id must be a positive whole number", report.getFailures().get(4).getReason());
+        Assertions.assertEquals(Long.valueOf(125L), jdbcTemplate.queryForObject("select price_cents from item", Long.class));
+        Assertions.assertEquals(1.0, meterRegistry.get("catalog.import.rows").tag("outcome", "imported").counter().count());
+        Assertions.assertEquals(5.0, meterRegistry.get("catalog.import.rows").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    public void testExplicitIdsMoveSequencePastThem() throws Exception {
+        importer.importResource(new ByteArrayResource(
+                "{\"id\":500,\"name\":\"Far\",\"description\":\"x\",\"price\":\"4.00\"}\n".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return "items.ndjson";
+            }
+        });
+
+        Assertions.assertTrue(jdbcTemplate.queryForObject("select next value for item_seq", Long.class) > 500);
+    }
+
+    @Test
+    public void testExplicitIdAlreadyAllocatedIsRejected() throws Exception {
+        CatalogImporter.Report report = importer.importCsv(new StringReader(
+                "id,name,description,price\n,First,x,1\n1,Second,x,2\n"));
+
+        Assertions.assertEquals(1, report.getImported());
+        Assertions.assertEquals("Id was already given to a row without one", report.getFailures().get(0).getReason());
+    }
+
+    @Test
+    public void testExplicitIdInUnusedPartOfBlockIsKeptAndNotAllocatedAgain() throws Exception {
+        CatalogImporter.Report report = importer.importCsv(new StringReader(
+                "id,name,description,price\n,First,x,1\n2,Second,x,2\n,Third,x,3\n,Fourth,x,4\n"));
+
+        Assertions.assertEquals(4, report.getImported());
+        Assertions.assertEquals("Second", jdbcTemplate.queryForObject("select name from item where id = 2", String.class));
+        Assertions.assertEquals(Long.valueOf(4L), jdbcTemplate.queryForObject("select count(distinct id) from item", Long.class));
+    }
+
+    @Test
+    public void testStartupImportsConfiguredLocationThenBuildsSearchIndex() {
+        CatalogImporter startup = new CatalogImporter(jdbcTemplate, new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                new ItemCacheInvalidator(new ConcurrentMapCacheManager()), searchIndexMock, new ObjectMapper(),
+                new DefaultResourceLoader(), "classpath:catalog/items.csv", 2, 0, meterRegistry);
+
+        startup.afterSingletonsInstantiated();
+
+        Assertions.assertTrue(jdbcTemplate.queryForObject("select count(*) from item", Long.class) > 0);
+        verify(searchIndexMock).rebuild();
+    }
+
+    @Test
+    public void testStartupWithoutLocationStillBuildsSearchIndex() {
+        importer.afterSingletonsInstantiated();
+
+        Assertions.assertEquals(Long.valueOf(0L), jdbcTemplate.queryForObject("select count(*) from item", Long.class));
+        verify(searchIndexMock).rebuild();
+    }
+
+    @Test
+    public void testCsvWithoutRequiredColumnIsRefused() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> importer.importCsv(new StringReader("id,name,price\n1,Widget,1.00\n")));
+    }
+
+    @Test
+    public void testOverlongRowIsSkippedAndLaterRowsImported() throws Exception {
+        StringBuilder csv = new StringBuilder("name,description,price\nFirst,ok,1\nLong,\"");
+        for (int i = 0; i < 2000; i++) {
+            csv.append("an over-long description with a, comma and \"\"quotes\"\"\n");
+        }
+        csv.append("end\",2\nThird,\"quoted, \nover two lines\",3\nFourth,ok,4\n");
+
+        CatalogImporter.Report report = importer.importCsv(new StringReader(csv.toString()));
+
+        Assertions.assertEquals(3, report.getImported());
+        Assertions.assertEquals(1, report.getRejected());
+        Assertions.assertEquals(2, report.getFailures().get(0).getRow());
+        Assertions.assertTrue(report.getFailures().get(0).getReason().startsWith("Row is longer than"));
+        Assertions.assertEquals(Long.valueOf(1L), jdbcTemplate.queryForObject("select count(*) from item where name = 'Fourth'", Long.class));
+    }
+
+    @Test
+    public void testUnterminatedQuoteEndsImport() throws Exception {
+        CatalogImporter.Report report = importer.importCsv(new StringReader(
+                "name,description,price\nFirst,ok,1\nSecond,\"never closed,2\nThird,ok,3\n"));
+
+        Assertions.assertEquals(1, report.getImported());
+        Assertions.assertEquals("Unterminated quoted field", report.getFailures().get(0).getReason());
+    }
+}
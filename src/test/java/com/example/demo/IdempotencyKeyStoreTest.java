@@ -0,0 +1,87 @@
+package com.example.demo;
+
+import com.example.demo.model.responses.OrderDetail;
+import com.example.demo.orders.IdempotencyKeyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdempotencyKeyStoreTest {
+
+    private IdempotencyKeyStore store = new IdempotencyKeyStore(100, 60, new SimpleMeterRegistry());
+
+    @Test
+    public void testKeysAreScopedPerUser() {
+        OrderDetail first = order();
+        OrderDetail second = order();
+
+        Assertions.assertSame(first, store.submitOnce("alice", "key", () -> first).getOrder());
+        Assertions.assertSame(second, store.submitOnce("bob", "key", () -> second).getOrder());
+        Assertions.assertSame(first, store.submitOnce("alice", "key", IdempotencyKeyStoreTest::order).getOrder());
+    }
+
+    @Test
+    public void testFailedAndEmptySubmissionsAreNotRemembered() {
+        Assertions.assertThrows(IllegalStateException.class, () -> store.submitOnce("alice", "key", () -> {
+            throw new IllegalStateException("database down");
+        }));
+        Assertions.assertNull(store.submitOnce("alice", "key", () -> null).getOrder());
+
+        OrderDetail order = order();
+        IdempotencyKeyStore.Submission submission = store.submitOnce("alice", "key", () -> order);
+
+        Assertions.assertSame(order, submission.getOrder());
+        Assertions.assertFalse(submission.isReplayed());
+    }
+
+    @Test
+    public void testConcurrentReplayWaitsForInFlightSubmission() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger submissions = new AtomicInteger();
+        OrderDetail order = order();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<IdempotencyKeyStore.Submission> first = executor.submit(() -> store.submitOnce("alice", "key", () -> {
+                submissions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return order;
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            Future<IdempotencyKeyStore.Submission> replay = executor.submit(() -> store.submitOnce("alice", "key", () -> {
+                submissions.incrementAndGet();
+                return order();
+            }));
+            release.countDown();
+
+            Assertions.assertSame(order, first.get(5, TimeUnit.SECONDS).getOrder());
+            Assertions.assertSame(order, replay.get(5, TimeUnit.SECONDS).getOrder());
+            Assertions.assertTrue(replay.get().isReplayed());
+            Assertions.assertEquals(1, submissions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static OrderDetail order() {
+        return new OrderDetail(1L, Collections.emptyList(), 0, Instant.now());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo;
+
+import com.example.demo.catalog.ItemCacheInvalidator;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Collections;
+
+public class ItemCacheInvalidatorTest {
+
+    private CacheManager cacheManager;
+    private ItemCacheInvalidator invalidator;
+
+    @Before
+    public void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(
+                ItemRepository.CACHE_BY_ID, ItemRepository.CACHE_BY_NAME, ItemRepository.CACHE_ALL);
+        invalidator = new ItemCacheInvalidator(cacheManager);
+    }
+
+    @Test
+    public void testItemChanged_EvictsOnlyThatIdAndAllListings() {
+        Item changed = createItem(1L);
+        Item other = createItem(2L);
+        cacheManager.getCache(ItemRepository.CACHE_BY_ID).put(1L, changed);
+        cacheManager.getCache(ItemRepository.CACHE_BY_ID).put(2L, other);
+        cacheManager.getCache(ItemRepository.CACHE_BY_NAME).put("Widget", Collections.singletonList(changed));
+        cacheManager.getCache(ItemRepository.CACHE_ALL).put("all", Collections.singletonList(changed));
+
+        invalidator.itemChanged(changed);
+
+        Assertions.assertNull(cacheManager.getCache(ItemRepository.CACHE_BY_ID).get(1L));
+        Assertions.assertNotNull(cacheManager.getCache(ItemRepository.CACHE_BY_ID).get(2L));
+        Assertions.assertNull(cacheManager.getCache(ItemRepository.CACHE_BY_NAME).get("Widget"));
+        Assertions.assertNull(cacheManager.getCache(ItemRepository.CACHE_ALL).get("all"));
+    }
+
+    @Test
+    public void testEvictAll() {
+        cacheManager.getCache(ItemRepository.CACHE_BY_ID).put(2L, createItem(2L));
+
+        invalidator.evictAll();
+
+        Assertions.assertNull(cacheManager.getCache(ItemRepository.CACHE_BY_ID).get(2L));
+    }
+
+    private Item createItem(long id) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Widget");
+        return item;
+    }
+}
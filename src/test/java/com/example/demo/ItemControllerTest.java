@@ -1,29 +1,54 @@
 package com.example.demo;
 
+import com.example.demo.catalog.ItemSearchIndex;
 import com.example.demo.controllers.ItemController;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ItemPage;
+import com.example.demo.model.responses.ItemSearchPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ItemControllerTest {
 
     private ItemController controllerUnderTest;
     private ItemRepository itemRepoMock = mock(ItemRepository.class);
+    private EntityManager entityManagerMock = mock(EntityManager.class);
+    private ItemSearchIndex searchIndexMock = mock(ItemSearchIndex.class);
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @Before
     public void setUp() {
         controllerUnderTest = new ItemController();
         FieldInjector.injectObjects(controllerUnderTest, "itemRepository", itemRepoMock);
+        FieldInjector.injectObjects(controllerUnderTest, "searchIndex", searchIndexMock);
+        FieldInjector.injectObjects(controllerUnderTest, "objectMapper", objectMapper);
+        FieldInjector.injectObjects(controllerUnderTest, "transactionManager", mock(PlatformTransactionManager.class));
+        FieldInjector.injectObjects(controllerUnderTest, "entityManager", entityManagerMock);
     }
 
     @Test
@@ -74,4 +99,60 @@ public class ItemControllerTest {
         Assertions.assertNotNull(response);
         Assertions.assertEquals(404, response.getStatusCodeValue());
     }
+
+    @Test
+    public void testGetItemPage_HasNextCursor() {
+        when(itemRepoMock.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 3)))
+                .thenReturn(new ArrayList<>(Arrays.asList(createItem(11L), createItem(12L), createItem(13L))));
+
+        ResponseEntity<ItemPage> response = controllerUnderTest.getItemPage(10L, 2);
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals(2, response.getBody().getItems().size());
+        Assertions.assertEquals(Long.valueOf(12L), response.getBody().getNextAfterId());
+    }
+
+    @Test
+    public void testGetItemPage_LastPage() {
+        when(itemRepoMock.findByIdGreaterThanOrderByIdAsc(12L, PageRequest.of(0, 3)))
+                .thenReturn(new ArrayList<>(Arrays.asList(createItem(13L))));
+
+        ResponseEntity<ItemPage> response = controllerUnderTest.getItemPage(12L, 2);
+        Assertions.assertEquals(1, response.getBody().getItems().size());
+        Assertions.assertNull(response.getBody().getNextAfterId());
+    }
+
+    @Test
+    public void testStreamItems() throws Exception {
+        when(itemRepoMock.streamAllOrderById()).thenReturn(Stream.of(createItem(1L), createItem(2L)));
+
+        ResponseEntity<StreamingResponseBody> response = controllerUnderTest.streamItems();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        JsonNode items = objectMapper.readTree(out.toByteArray());
+        Assertions.assertEquals(2, items.size());
+        Assertions.assertEquals(2, items.get(1).get("id").asInt());
+        verify(entityManagerMock, times(2)).detach(any(Item.class));
+    }
+
+    @Test
+    public void testSearchItems_ClampsLimitAndOffset() {
+        ItemSearchPage page = new ItemSearchPage(Arrays.asList(createItem(1L)), 1);
+        when(searchIndexMock.search(eq("widget"), anyInt(), anyInt())).thenReturn(page);
+
+        ResponseEntity<ItemSearchPage> response = controllerUnderTest.searchItems("widget", -5, 1000);
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertSame(page, response.getBody());
+        verify(searchIndexMock).search("widget", 0, 100);
+    }
+
+    private Item createItem(long id) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Widget " + id);
+        item.setPrice(new BigDecimal("1.00"));
+        item.setDescription("A widget");
+        return item;
+    }
 }
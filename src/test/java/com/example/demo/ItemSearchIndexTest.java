@@ -0,0 +1,109 @@
+package com.example.demo;
+
+import com.example.demo.catalog.ItemSearchIndex;
+import com.example.demo.catalog.ItemSearchIndexListener;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ItemSearchPage;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemSearchIndexTest {
+
+    private ItemRepository itemRepoMock = mock(ItemRepository.class);
+    private EntityManager entityManagerMock = mock(EntityManager.class);
+    private ItemSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new ItemSearchIndex();
+        FieldInjector.injectObjects(index, "itemRepository", itemRepoMock);
+        FieldInjector.injectObjects(index, "transactionManager", mock(PlatformTransactionManager.class));
+        FieldInjector.injectObjects(index, "entityManager", entityManagerMock);
+        when(itemRepoMock.streamAllOrderById()).thenAnswer(invocation -> Arrays.asList(
+                createItem(1L, "Round Widget", "A widget that is round"),
+                createItem(2L, "Square Widget", "A widget that is square"),
+                createItem(3L, "Gadget", "Pairs well with a round widget")).stream());
+        index.rebuild();
+    }
+
+    @Test
+    public void testRebuildStreamsAndDetachesInsteadOfLoadingCachedList() {
+        verify(itemRepoMock, never()).findAll();
+        verify(entityManagerMock, times(3)).detach(any(Item.class));
+        Assertions.assertEquals(3, index.search("widget", 0, 10).getTotal());
+    }
+
+    @Test
+    public void testNameMatchesRankAboveDescriptionMatches() {
+        ItemSearchPage page = index.search("round", 0, 10);
+
+        Assertions.assertEquals(2, page.getTotal());
+        Assertions.assertEquals(Arrays.asList(1L, 3L), ids(page));
+    }
+
+    @Test
+    public void testAllTermsMustMatchAndLastTermIsAPrefix() {
+        Assertions.assertEquals(Arrays.asList(2L), ids(index.search("widget SQU", 0, 10)));
+        Assertions.assertEquals(Arrays.asList(1L, 3L), ids(index.search("widget, roun", 0, 10)));
+        Assertions.assertEquals(0, index.search("square gadget", 0, 10).getTotal());
+        Assertions.assertEquals(0, index.search("  ,, ", 0, 10).getTotal());
+    }
+
+    @Test
+    public void testOffsetAndLimitPageThroughRankedHits() {
+        ItemSearchPage first = index.search("widget", 0, 2);
+        ItemSearchPage rest = index.search("widget", 2, 2);
+
+        Assertions.assertEquals(3, first.getTotal());
+        Assertions.assertEquals(2, first.getItems().size());
+        Assertions.assertEquals(Arrays.asList(3L), ids(rest));
+        Assertions.assertTrue(index.search("widget", 10, 2).getItems().isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdatesReplaceAndRemoveTerms() {
+        ItemSearchIndexListener listener = new ItemSearchIndexListener(index);
+
+        listener.itemSaved(createItem(2L, "Square Sprocket", "A sprocket that is square"));
+        listener.itemSaved(createItem(4L, "Widget Stand", "Holds a widget"));
+        listener.itemRemoved(createItem(3L, "Gadget", ""));
+
+        Assertions.assertEquals(Arrays.asList(1L, 4L), ids(index.search("widget", 0, 10)));
+        Assertions.assertEquals(Arrays.asList(2L), ids(index.search("sprock", 0, 10)));
+        Assertions.assertEquals(0, index.search("gadget", 0, 10).getTotal());
+        Assertions.assertEquals(3, index.size());
+    }
+
+    private List<Long> ids(ItemSearchPage page) {
+        List<Long> ids = new ArrayList<>();
+        for (Item item : page.getItems()) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    private Item createItem(long id, String name, String description) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setPriceCents(100);
+        return item;
+    }
+}
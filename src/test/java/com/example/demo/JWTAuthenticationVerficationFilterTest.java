@@ -0,0 +1,112 @@
+package com.example.demo;
+
+import com.auth0.jwt.JWT;
+import com.example.demo.security.JWTAuthenticationVerficationFilter;
+import com.example.demo.security.RevokedTokens;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.mockito.Mockito.mock;
+
+public class JWTAuthenticationVerficationFilterTest {
+
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RevokedTokens revokedTokens = new RevokedTokens(100, 0.01, 1000, 16, meterRegistry, false);
+    private JWTAuthenticationVerficationFilter filter;
+
+    @Before
+    public void setUp() {
+        filter = new JWTAuthenticationVerficationFilter(mock(AuthenticationManager.class),
+                new VerifiedTokenCache(100, 300, meterRegistry), revokedTokens,
+                Collections.singleton("admin"), meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testValidToken_Authenticates() throws Exception {
+        String token = JWT.create()
+                .withSubject("testUser")
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(SecurityConstants.ALGORITHM);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Assertions.assertEquals("testUser", authentication.getPrincipal());
+        Assertions.assertNotNull(chain.getRequest());
+        Assertions.assertEquals(1, meterRegistry.get("security.filter").tag("filter", "verification").timer().count());
+    }
+
+    @Test
+    public void testRevokedToken_CountsFailureAndContinuesUnauthenticated() throws Exception {
+        String token = JWT.create()
+                .withSubject("testUser")
+                .withJWTId("token-1")
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(SecurityConstants.ALGORITHM);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Assertions.assertEquals("testUser", SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        SecurityContextHolder.clearContext();
+
+        revokedTokens.revoke("token-1", System.currentTimeMillis() + 60_000);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        Assertions.assertEquals(1.0, meterRegistry.get("security.auth.failures").tag("reason", "revoked_token")
+                .counter().count());
+    }
+
+    @Test
+    public void testAdminUsernameIsGrantedAdminRole() throws Exception {
+        String token = JWT.create()
+                .withSubject("admin")
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(SecurityConstants.ALGORITHM);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Assertions.assertEquals("ROLE_ADMIN", SecurityContextHolder.getContext().getAuthentication()
+                .getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    public void testInvalidToken_CountsFailureAndContinuesUnauthenticated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + "not.a.token");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        Assertions.assertNotNull(chain.getRequest());
+        Assertions.assertEquals(1.0, meterRegistry.get("security.auth.failures").tag("reason", "invalid_token")
+                .counter().count());
+    }
+}
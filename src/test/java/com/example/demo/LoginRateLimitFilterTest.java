@@ -0,0 +1,158 @@
+package com.example.demo;
+
+import com.example.demo.security.LoginRateLimitFilter;
+import com.example.demo.security.LoginRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LoginRateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginRateLimitFilter filter = new LoginRateLimitFilter(
+            new LoginRateLimiter(3, 1, 2, 1, 100, 4, meterRegistry), new ObjectMapper());
+
+    @Test
+    public void testBodyIsStillReadableDownstream() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter(login("alice", "10.0.0.1"), chain);
+
+        Assertions.assertEquals(200, response.getStatus());
+        String body = StreamUtils.copyToString(((HttpServletRequest) chain.getRequest()).getInputStream(),
+                StandardCharsets.UTF_8);
+        Assertions.assertEquals(credentials("alice"), body);
+    }
+
+    @Test
+    public void testUsernameBucketLimitsAcrossAddresses() throws Exception {
+        Assertions.assertEquals(200, filter(login("alice", "10.0.0.1"), new MockFilterChain()).getStatus());
+        Assertions.assertEquals(200, filter(login("alice", "10.0.0.2"), new MockFilterChain()).getStatus());
+
+        MockHttpServletResponse response = filter(login("alice", "10.0.0.3"), new MockFilterChain());
+
+        Assertions.assertEquals(429, response.getStatus());
+        Assertions.assertEquals("60", response.getHeader("Retry-After"));
+        Assertions.assertEquals(200, filter(login("bob", "10.0.0.3"), new MockFilterChain()).getStatus());
+        Assertions.assertEquals(1.0, meterRegistry.get("security.rate-limit.rejections")
+                .tag("endpoint", "login").tag("key", "username").counter().count());
+    }
+
+    @Test
+    public void testAddressBucketLimitsSignUp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = login("user" + i, "10.0.0.1");
+            request.setServletPath("/api/user/create");
+            Assertions.assertEquals(200, filter(request, new MockFilterChain()).getStatus());
+        }
+        MockHttpServletRequest request = login("user3", "10.0.0.1");
+        request.setServletPath("/api/user/create");
+
+        Assertions.assertEquals(429, filter(request, new MockFilterChain()).getStatus());
+        Assertions.assertEquals(1.0, meterRegistry.get("security.rate-limit.rejections")
+                .tag("endpoint", "signup").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    public void testThrottledAddressIsRejectedBeforeBodyIsRead() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            filter(login("user" + i, "10.0.0.1"), new MockFilterChain());
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login") {
+            @Override
+            public ServletInputStream getInputStream() {
+                throw new AssertionError("body read for a throttled address");
+            }
+        };
+        request.setServletPath("/login");
+        request.setRemoteAddr("10.0.0.1");
+
+        Assertions.assertEquals(429, filter(request, new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    public void testOversizedBodiesAreRejected() throws Exception {
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i <= LoginRateLimitFilter.MAX_BODY_BYTES; i++) {
+            padding.append(' ');
+        }
+        MockHttpServletRequest declared = login("alice", "10.0.0.1");
+        declared.setContent((padding + credentials("alice")).getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/login") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.setServletPath("/login");
+        chunked.setContent(declared.getContentAsByteArray());
+        MockFilterChain chain = new MockFilterChain();
+
+        Assertions.assertEquals(413, filter(declared, chain).getStatus());
+        Assertions.assertEquals(413, filter(chunked, chain).getStatus());
+        Assertions.assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void testBufferedBodySupportsReadListener() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter(login("alice", "10.0.0.1"), chain);
+        AtomicBoolean allRead = new AtomicBoolean();
+
+        ((HttpServletRequest) chain.getRequest()).getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        });
+
+        Assertions.assertTrue(allRead.get());
+    }
+
+    @Test
+    public void testOtherEndpointsAreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/item");
+            request.setServletPath("/api/item");
+            Assertions.assertEquals(200, filter(request, new MockFilterChain()).getStatus());
+        }
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest login(String username, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setRemoteAddr(address);
+        request.setContentType("application/json");
+        request.setContent(credentials(username).getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String credentials(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"password123\"}";
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo;
+
+import com.example.demo.model.Money;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.math.BigDecimal;
+
+public class MoneyTest {
+
+    @Test
+    public void testConversionsRoundTrip() {
+        Assertions.assertEquals(299, Money.toMinorUnits(new BigDecimal("2.99")));
+        Assertions.assertEquals(300, Money.toMinorUnits(new BigDecimal("2.995")));
+        Assertions.assertEquals(500, Money.toMinorUnits(new BigDecimal("5")));
+        Assertions.assertEquals(new BigDecimal("2.99"), Money.toDecimal(299));
+        Assertions.assertEquals(new BigDecimal("0.00"), Money.toDecimal(0));
+    }
+
+    @Test
+    public void testCartTotalsAreKeptInMinorUnits() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setPrice(new BigDecimal("0.10"));
+        Cart cart = new Cart();
+
+        cart.addItem(item, 3);
+        cart.removeItem(item, 1);
+
+        Assertions.assertEquals(20, cart.getTotalCents());
+        Assertions.assertEquals(new BigDecimal("0.20"), cart.getTotal());
+    }
+
+    @Test
+    public void testCartTotalOverflowIsRejected() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setPriceCents(Long.MAX_VALUE / 2);
+        Cart cart = new Cart();
+
+        Assertions.assertThrows(ArithmeticException.class, () -> cart.addItem(item, 3));
+        Assertions.assertEquals(0, cart.getQuantity(item));
+        Assertions.assertEquals(0, cart.getTotalCents());
+    }
+}
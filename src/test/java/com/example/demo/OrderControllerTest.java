@@ -5,20 +5,42 @@ import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.UserOrderStats;
 import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserOrderStatsRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderDetail;
+import com.example.demo.model.responses.OrderHistoryPage;
+import com.example.demo.model.responses.OrderStats;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.orders.IdempotencyKeyStore;
+import com.example.demo.orders.OrderExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class OrderControllerTest {
@@ -27,12 +49,19 @@ public class OrderControllerTest {
 
     private OrderRepository orderRepoMock = mock(OrderRepository.class);
     private UserRepository userRepoMock = mock(UserRepository.class);
+    private UserOrderStatsRepository statsRepoMock = mock(UserOrderStatsRepository.class);
 
     @Before
     public void setUp() {
         orderController = new OrderController();
         FieldInjector.injectObjects(orderController, "userRepository", userRepoMock);
         FieldInjector.injectObjects(orderController, "orderRepository", orderRepoMock);
+        FieldInjector.injectObjects(orderController, "orderStatsRepository", statsRepoMock);
+        FieldInjector.injectObjects(orderController, "idempotencyKeyStore",
+                new IdempotencyKeyStore(100, 60, new SimpleMeterRegistry()));
+        FieldInjector.injectObjects(orderController, "orderExecutor",
+                new OrderExecutor(1, 10, 5000, new SimpleMeterRegistry()));
+        FieldInjector.injectObjects(orderController, "transactionManager", mock(PlatformTransactionManager.class));
     }
 
     @Test
@@ -40,30 +69,104 @@ public class OrderControllerTest {
         User testUser = createUser(1L, "testUser");
         when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
 
-        UserOrder testOrder = new UserOrder();
-        when(orderRepoMock.findById(any(Long.class))).thenReturn(Optional.of(testOrder));
+        OrderSummary summary = new OrderSummary(7L, 1500L, 3L, Instant.now());
+        when(orderRepoMock.findSummariesByUser(eq(testUser), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(summary), PageRequest.of(1, 10), true));
 
-        ResponseEntity<List<UserOrder>> response = orderController.getOrdersForUser("testUser");
+        ResponseEntity<OrderHistoryPage> response = resultOf(orderController.getOrdersForUser("testUser", 1, 10));
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(200, response.getStatusCodeValue());
+        OrderHistoryPage page = response.getBody();
+        Assertions.assertEquals(1, page.getOrders().size());
+        Assertions.assertEquals(3, page.getOrders().get(0).getItemCount());
+        Assertions.assertTrue(page.isHasNext());
+        verify(orderRepoMock).findSummariesByUser(testUser, PageRequest.of(1, 10));
+    }
+
+    @Test
+    public void testGetOrdersByUsername_ClampsPageSize() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        when(orderRepoMock.findSummariesByUser(eq(testUser), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        ResponseEntity<OrderHistoryPage> response = resultOf(orderController.getOrdersForUser("testUser", -1, 100000));
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals(0, response.getBody().getPage());
+        Assertions.assertEquals(100, response.getBody().getSize());
+        verify(orderRepoMock).findSummariesByUser(testUser, PageRequest.of(0, 100));
     }
 
     @Test
     public void testGetOrdersByUsername_UserNotFound() {
         when(userRepoMock.findByUsername("nonexistentUser")).thenReturn(null);
 
-        ResponseEntity<List<UserOrder>> response = orderController.getOrdersForUser("nonexistentUser");
+        ResponseEntity<OrderHistoryPage> response = resultOf(orderController.getOrdersForUser("nonexistentUser", 0, 20));
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(404, response.getStatusCodeValue());
     }
 
+    @Test
+    public void testGetOrderForUser_Success() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        Cart cart = new Cart();
+        cart.addItem(createItem(), 2);
+        cart.setUser(testUser);
+        UserOrder testOrder = UserOrder.createFromCart(cart);
+        testOrder.setId(7L);
+        when(orderRepoMock.findWithItemsByIdAndUser(7L, testUser)).thenReturn(Optional.of(testOrder));
+
+        ResponseEntity<OrderDetail> response = resultOf(orderController.getOrderForUser("testUser", 7L));
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        OrderDetail order = response.getBody();
+        Assertions.assertEquals(Long.valueOf(7L), order.getId());
+        Assertions.assertEquals(1, order.getItems().size());
+        Assertions.assertEquals(2, order.getItems().get(0).getQuantity());
+        Assertions.assertEquals(0, new BigDecimal("10.00").compareTo(order.getItems().get(0).getLineTotal()));
+        Assertions.assertEquals(testOrder.getCreatedAt(), order.getCreatedAt());
+    }
+
+    @Test
+    public void testGetOrderForUser_LineTotalsKeepThePriceOrderedAt() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        Item item = createItem();
+        Cart cart = new Cart();
+        cart.addItem(item, 2);
+        cart.setUser(testUser);
+        item.setPriceCents(899L);
+        UserOrder testOrder = UserOrder.createFromCart(cart);
+        testOrder.setId(7L);
+        item.setPriceCents(1299L);
+        when(orderRepoMock.findWithItemsByIdAndUser(7L, testUser)).thenReturn(Optional.of(testOrder));
+
+        OrderDetail order = resultOf(orderController.getOrderForUser("testUser", 7L)).getBody();
+
+        Assertions.assertEquals(0, new BigDecimal("10.00").compareTo(order.getItems().get(0).getLineTotal()));
+        Assertions.assertEquals(0, order.getTotal().compareTo(order.getItems().get(0).getLineTotal()));
+    }
+
+    @Test
+    public void testGetOrderForUser_OrderNotFound() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+        when(orderRepoMock.findWithItemsByIdAndUser(8L, testUser)).thenReturn(Optional.empty());
+
+        ResponseEntity<OrderDetail> response = resultOf(orderController.getOrderForUser("testUser", 8L));
+
+        Assertions.assertEquals(404, response.getStatusCodeValue());
+    }
+
     @Test
     public void testSubmitOrder_UserNotFound() {
         when(userRepoMock.findByUsername("nonexistentUser")).thenReturn(null);
 
-        ResponseEntity<?> response = orderController.submit("nonexistentUser");
+        ResponseEntity<?> response = resultOf(orderController.submit("nonexistentUser", null));
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(404, response.getStatusCodeValue());
@@ -75,20 +178,133 @@ public class OrderControllerTest {
         when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
 
         Item testItem = createItem();
-        List<Item> items = new ArrayList<>();
-        items.add(testItem);
 
         Cart cart = new Cart();
         cart.setId(1L);
-        cart.setTotal(new BigDecimal("5.00"));
-        cart.setItems(items);
+        cart.addItem(testItem, 3);
         testUser.setCart(cart);
         when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
 
-        ResponseEntity<?> response = orderController.submit("testUser");
+        ResponseEntity<OrderDetail> response = resultOf(orderController.submit("testUser", null));
 
         Assertions.assertNotNull(response);
         Assertions.assertEquals(200, response.getStatusCodeValue());
+
+        OrderDetail order = response.getBody();
+        Assertions.assertNotNull(order);
+        Assertions.assertEquals(1, order.getItems().size());
+        Assertions.assertEquals(3, order.getItems().get(0).getQuantity());
+        Assertions.assertEquals(0, new BigDecimal("15.00").compareTo(order.getTotal()));
+        Assertions.assertNotNull(order.getCreatedAt());
+        verify(statsRepoMock).recordOrder(1L, 1500L, order.getCreatedAt());
+        verify(statsRepoMock).insertFirstOrder(1L, 1500L, order.getCreatedAt());
+    }
+
+    @Test
+    public void testSubmitOrder_IncrementsExistingStats() {
+        User testUser = createUser(1L, "testUser");
+        testUser.getCart().addItem(createItem(), 1);
+        when(userRepoMock.findByUsername("testUser")).thenReturn(testUser);
+        when(statsRepoMock.recordOrder(eq(1L), eq(500L), any(Instant.class))).thenReturn(1);
+
+        Assertions.assertEquals(200, resultOf(orderController.submit("testUser", null)).getStatusCodeValue());
+
+        verify(statsRepoMock, never()).insertFirstOrder(anyLong(), anyLong(), any(Instant.class));
+    }
+
+    @Test
+    public void testSubmitOrder_RetriesWhenFirstStatsRowRaces() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername("testUser")).thenReturn(testUser);
+        when(statsRepoMock.recordOrder(eq(1L), anyLong(), any(Instant.class))).thenReturn(0, 1);
+        when(statsRepoMock.insertFirstOrder(eq(1L), anyLong(), any(Instant.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        Assertions.assertEquals(200, resultOf(orderController.submit("testUser", null)).getStatusCodeValue());
+
+        verify(statsRepoMock, times(2)).recordOrder(eq(1L), anyLong(), any(Instant.class));
+        verify(statsRepoMock, times(1)).insertFirstOrder(eq(1L), anyLong(), any(Instant.class));
+    }
+
+    @Test
+    public void testGetOrderStats() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername("testUser")).thenReturn(testUser);
+        UserOrderStats stats = new UserOrderStats();
+        stats.setUserId(1L);
+        stats.setOrderCount(3);
+        stats.setTotalSpentCents(4550);
+        stats.setLastOrderAt(Instant.parse("2026-01-02T03:04:05Z"));
+        when(statsRepoMock.findById(1L)).thenReturn(Optional.of(stats));
+
+        OrderStats body = resultOf(orderController.getOrderStats("testUser")).getBody();
+
+        Assertions.assertEquals(3, body.getOrderCount());
+        Assertions.assertEquals(0, new BigDecimal("45.50").compareTo(body.getTotalSpent()));
+        Assertions.assertEquals(stats.getLastOrderAt(), body.getLastOrderAt());
+    }
+
+    @Test
+    public void testGetOrderStats_NoOrdersAndUnknownUser() {
+        when(userRepoMock.findByUsername("testUser")).thenReturn(createUser(1L, "testUser"));
+        when(statsRepoMock.findById(1L)).thenReturn(Optional.empty());
+
+        OrderStats body = resultOf(orderController.getOrderStats("testUser")).getBody();
+
+        Assertions.assertEquals(0, body.getOrderCount());
+        Assertions.assertNull(body.getLastOrderAt());
+        Assertions.assertEquals(404, resultOf(orderController.getOrderStats("nobody")).getStatusCodeValue());
+    }
+
+    @Test
+    public void testSubmitOrder_IdempotencyKeyReplaysOriginalOrder() {
+        User testUser = createUser(1L, "testUser");
+        testUser.getCart().addItem(createItem(), 1);
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+
+        ResponseEntity<OrderDetail> first = resultOf(orderController.submit("testUser", "key-1"));
+        ResponseEntity<OrderDetail> replay = resultOf(orderController.submit("testUser", "key-1"));
+
+        Assertions.assertEquals(200, replay.getStatusCodeValue());
+        Assertions.assertSame(first.getBody(), replay.getBody());
+        Assertions.assertNull(first.getHeaders().getFirst(OrderController.IDEMPOTENT_REPLAYED_HEADER));
+        Assertions.assertEquals("true", replay.getHeaders().getFirst(OrderController.IDEMPOTENT_REPLAYED_HEADER));
+        verify(orderRepoMock, times(1)).save(any(UserOrder.class));
+        verify(userRepoMock, times(1)).findByUsername("testUser");
+    }
+
+    @Test
+    public void testSubmitOrder_DifferentIdempotencyKeysSubmitAgain() {
+        User testUser = createUser(1L, "testUser");
+        when(userRepoMock.findByUsername(testUser.getUsername())).thenReturn(testUser);
+
+        resultOf(orderController.submit("testUser", "key-1"));
+        resultOf(orderController.submit("testUser", "key-2"));
+
+        verify(orderRepoMock, times(2)).save(any(UserOrder.class));
+    }
+
+    @Test
+    public void testSubmitOrder_InvalidIdempotencyKey() {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < 256; i++) {
+            key.append('k');
+        }
+
+        Assertions.assertEquals(400, resultOf(orderController.submit("testUser", "")).getStatusCodeValue());
+        Assertions.assertEquals(400, resultOf(orderController.submit("testUser", key.toString())).getStatusCodeValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> resultOf(DeferredResult<ResponseEntity<T>> deferred) {
+        CountDownLatch done = new CountDownLatch(1);
+        deferred.setResultHandler(result -> done.countDown());
+        try {
+            Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return (ResponseEntity<T>) deferred.getResult();
     }
 
     private User createUser(long id, String username) {
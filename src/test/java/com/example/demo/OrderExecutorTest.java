@@ -0,0 +1,144 @@
+package com.example.demo;
+
+import com.example.demo.metrics.RepositoryCallCounter;
+import com.example.demo.orders.OrderExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class OrderExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderExecutor executor = new OrderExecutor(1, 1, 5000, meterRegistry);
+
+    @After
+    public void tearDown() {
+        executor.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testWorkRunsWithCallersSecurityContextAndCallCounter() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, Collections.emptyList()));
+        RepositoryCallCounter.reset();
+
+        Object result = await(executor.execute(() -> {
+            RepositoryCallCounter.increment();
+            return ResponseEntity.ok(SecurityContextHolder.getContext().getAuthentication().getName());
+        }));
+
+        Assertions.assertEquals("alice", ((ResponseEntity<?>) result).getBody());
+        Assertions.assertEquals(1, RepositoryCallCounter.get());
+    }
+
+    @Test
+    public void testFailuresBecomeErrorResults() throws Exception {
+        Object result = await(executor.execute(() -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        Assertions.assertTrue(result instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testFullQueueIsRejectedWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DeferredResult<ResponseEntity<String>> running = executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.ok("done");
+        });
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        DeferredResult<ResponseEntity<String>> queued = executor.execute(() -> ResponseEntity.ok("queued"));
+
+        ResponseEntity<?> rejected = (ResponseEntity<?>) await(executor.execute(() -> ResponseEntity.ok("rejected")));
+
+        Assertions.assertEquals(503, rejected.getStatusCodeValue());
+        Assertions.assertEquals("1", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals(1, executor.getQueueSize());
+        Assertions.assertEquals(1.0, meterRegistry.get("orders.executor.rejected").counter().count());
+        release.countDown();
+        Assertions.assertEquals("done", ((ResponseEntity<?>) await(running)).getBody());
+        Assertions.assertEquals("queued", ((ResponseEntity<?>) await(queued)).getBody());
+    }
+
+    @Test
+    public void testStartedWorkOutlivesTimeoutAndAnswers() throws Exception {
+        OrderExecutor shortTimeout = new OrderExecutor(1, 1, 100, meterRegistry);
+        try {
+            DeferredResult<ResponseEntity<String>> running = shortTimeout.execute(() -> {
+                try {
+                    Thread.sleep(400);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ResponseEntity.ok("committed");
+            });
+
+            ResponseEntity<?> response = (ResponseEntity<?>) await(running);
+
+            Assertions.assertEquals(200, response.getStatusCodeValue());
+            Assertions.assertEquals("committed", response.getBody());
+            Assertions.assertEquals(0.0, meterRegistry.get("orders.executor.timeouts").counter().count());
+        } finally {
+            shortTimeout.destroy();
+        }
+    }
+
+    @Test
+    public void testWorkStillQueuedAfterTimeoutIsDroppedWithRetryAfter() throws Exception {
+        OrderExecutor shortTimeout = new OrderExecutor(1, 1, 100, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+        try {
+            shortTimeout.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ResponseEntity.ok("done");
+            });
+            DeferredResult<ResponseEntity<String>> queued = shortTimeout.execute(() -> {
+                queuedRan.set(true);
+                return ResponseEntity.ok("queued");
+            });
+
+            ResponseEntity<?> response = (ResponseEntity<?>) await(queued);
+
+            Assertions.assertEquals(503, response.getStatusCodeValue());
+            Assertions.assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            Assertions.assertEquals(0, shortTimeout.getQueueSize());
+            release.countDown();
+            Thread.sleep(100);
+            Assertions.assertFalse(queuedRan.get());
+        } finally {
+            shortTimeout.destroy();
+        }
+    }
+
+    private static Object await(DeferredResult<?> deferred) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        deferred.setResultHandler(result -> done.countDown());
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        return deferred.getResult();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo;
+
+import com.example.demo.orders.OrderStatsRebuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.sql.Timestamp;
+import java.util.Map;
+
+public class OrderStatsRebuilderTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private OrderStatsRebuilder rebuilder;
+
+    @Before
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:order-stats-rebuild;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists user_order");
+        jdbcTemplate.execute("drop table if exists user_order_stats");
+        jdbcTemplate.execute("create table user_order (id bigint primary key, user_id bigint not null, "
+                + "total_cents bigint not null, created_at timestamp not null)");
+        jdbcTemplate.execute("create table user_order_stats (user_id bigint primary key, order_count bigint not null, "
+                + "total_spent_cents bigint not null, last_order_at timestamp)");
+        rebuilder = new OrderStatsRebuilder(jdbcTemplate, new DataSourceTransactionManager(dataSource), 2, 3,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testRebuildReplacesDriftedAndStaleRowsChunkByChunk() {
+        order(1, 1, 1000, "2026-01-01 10:00:00");
+        order(2, 1, 250, "2026-01-03 10:00:00");
+        order(3, 5, 700, "2026-01-02 10:00:00");
+        order(4, 8, 100, "2026-01-04 10:00:00");
+        jdbcTemplate.update("insert into user_order_stats values (1, 1, 1000, '2026-01-01 10:00:00')");
+        jdbcTemplate.update("insert into user_order_stats values (10, 4, 4000, '2026-01-01 10:00:00')");
+
+        OrderStatsRebuilder.Report report = rebuilder.rebuild();
+
+        Assertions.assertEquals(4, report.getChunks());
+        Assertions.assertEquals(0, report.getFailedChunks());
+        Assertions.assertEquals(3, report.getUsers());
+        Map<String, Object> first = jdbcTemplate.queryForMap("select * from user_order_stats where user_id = 1");
+        Assertions.assertEquals(2L, first.get("ORDER_COUNT"));
+        Assertions.assertEquals(1250L, first.get("TOTAL_SPENT_CENTS"));
+        Assertions.assertEquals(Timestamp.valueOf("2026-01-03 10:00:00"), first.get("LAST_ORDER_AT"));
+        Assertions.assertEquals(Long.valueOf(3L),
+                jdbcTemplate.queryForObject("select count(*) from user_order_stats", Long.class));
+    }
+
+    @Test
+    public void testRebuildWithNoOrders() {
+        OrderStatsRebuilder.Report report = rebuilder.rebuild();
+
+        Assertions.assertEquals(0, report.getChunks());
+        Assertions.assertEquals(0, report.getUsers());
+    }
+
+    private void order(long id, long userId, long totalCents, String createdAt) {
+        jdbcTemplate.update("insert into user_order values (?, ?, ?, ?)", id, userId, totalCents,
+                Timestamp.valueOf(createdAt));
+    }
+}
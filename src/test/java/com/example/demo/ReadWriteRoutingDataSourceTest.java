@@ -0,0 +1,159 @@
+package com.example.demo;
+
+import com.example.demo.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcDataSource primary = h2("routing-primary");
+
+    private JdbcDataSource replica = h2("routing-replica");
+
+    @Before
+    public void setUp() {
+        for (JdbcDataSource dataSource : new JdbcDataSource[] { primary, replica }) {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.execute("drop table if exists note");
+            jdbc.execute("create table note (id bigint primary key, body varchar(255))");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testWritesGoToPrimaryAndOtherUsersReadTheReplica() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, 60_000, meterRegistry);
+
+        signIn("alice");
+        write(routing, 1L);
+        Assertions.assertEquals(1, count(primary));
+        Assertions.assertEquals(0, count(replica));
+
+        double primaryRoutes = meterRegistry.get("datasource.routes").tag("target", "primary").counter().count();
+        signIn("bob");
+        Assertions.assertEquals(0, readOnlyCount(routing));
+        new JdbcTemplate(replica).update("insert into note values (1, 'replicated')");
+        Assertions.assertEquals(1, readOnlyCount(routing));
+
+        Assertions.assertEquals(primaryRoutes, meterRegistry.get("datasource.routes").tag("target", "primary").counter().count());
+        Assertions.assertEquals(2.0, meterRegistry.get("datasource.routes").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    public void testWriterReadsOwnWritesFromPrimaryWithinLagWindow() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, 60_000, meterRegistry);
+
+        signIn("alice");
+        write(routing, 1L);
+
+        Assertions.assertEquals(1, readOnlyCount(routing));
+    }
+
+    @Test
+    public void testLagWindowStartsWhenTheWriteCommits() throws Exception {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, 300, meterRegistry);
+
+        signIn("alice");
+        new TransactionTemplate(new DataSourceTransactionManager(routing)).execute(status -> {
+            new JdbcTemplate(routing).update("insert into note values (1, 'hello')");
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+
+        Assertions.assertEquals(1, readOnlyCount(routing));
+    }
+
+    @Test
+    public void testRolledBackWriteIsNotRecorded() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, 60_000, meterRegistry);
+        new JdbcTemplate(replica).update("insert into note values (1, 'replicated')");
+
+        signIn("alice");
+        new TransactionTemplate(new DataSourceTransactionManager(routing)).execute(status -> {
+            new JdbcTemplate(routing).update("insert into note values (2, 'hello')");
+            status.setRollbackOnly();
+            return null;
+        });
+
+        Assertions.assertEquals(1, readOnlyCount(routing));
+    }
+
+    @Test
+    public void testWritesOnBehalfOfAnUnauthenticatedUserKeepTheirReadsOnPrimary() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, 60_000, meterRegistry);
+
+        ReadWriteRoutingDataSource.onBehalfOf("carol", () -> {
+            write(routing, 1L);
+            return null;
+        });
+
+        Assertions.assertEquals(1, (int) ReadWriteRoutingDataSource.onBehalfOf("carol", () -> readOnlyCount(routing)));
+        Assertions.assertEquals(0, readOnlyCount(routing));
+    }
+
+    @Test
+    public void testZeroLagToleranceAlwaysReadsReplica() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, 0, meterRegistry);
+
+        signIn("alice");
+        write(routing, 1L);
+
+        Assertions.assertEquals(0, readOnlyCount(routing));
+    }
+
+    @Test
+    public void testAnonymousReadsUseReplica() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, 60_000, meterRegistry);
+        new JdbcTemplate(replica).update("insert into note values (1, 'replicated')");
+
+        Assertions.assertEquals(1, readOnlyCount(routing));
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList()));
+    }
+
+    private static void write(ReadWriteRoutingDataSource routing, long id) {
+        new TransactionTemplate(new DataSourceTransactionManager(routing)).execute(status ->
+                new JdbcTemplate(routing).update("insert into note values (?, 'hello')", id));
+    }
+
+    private static int readOnlyCount(ReadWriteRoutingDataSource routing) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> count(routing));
+    }
+
+    private static int count(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("select count(*) from note", Integer.class);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo;
+
+import com.example.demo.security.RefreshTokenStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+public class RefreshTokenStoreTest {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RefreshTokenStore store = new RefreshTokenStore(60, 100, 60, meterRegistry);
+
+    @After
+    public void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    public void testRotationSpendsTokenAndIssuesNext() {
+        String first = store.issue("alice");
+
+        RefreshTokenStore.Rotation rotation = store.rotate(first);
+
+        Assertions.assertEquals("alice", rotation.getUsername());
+        Assertions.assertNotEquals(first, rotation.getToken());
+        Assertions.assertEquals("alice", store.rotate(rotation.getToken()).getUsername());
+        Assertions.assertEquals(2.0, meterRegistry.get("security.refresh").tag("outcome", "rotated").counter().count());
+    }
+
+    @Test
+    public void testReusedTokenRevokesFamily() {
+        String first = store.issue("alice");
+        String second = store.rotate(first).getToken();
+        String otherSession = store.issue("alice");
+
+        Assertions.assertNull(store.rotate(first));
+        Assertions.assertNull(store.rotate(second));
+        Assertions.assertNotNull(store.rotate(otherSession));
+        Assertions.assertEquals(1.0, meterRegistry.get("security.refresh").tag("outcome", "reused").counter().count());
+    }
+
+    @Test
+    public void testRotatingPastMaximumSizeKeepsOneEntryPerFamily() {
+        RefreshTokenStore small = new RefreshTokenStore(60, 10, 60, meterRegistry);
+        try {
+            String first = small.issue("alice");
+            String token = first;
+            for (int i = 0; i < 100; i++) {
+                RefreshTokenStore.Rotation rotation = small.rotate(token);
+                Assertions.assertNotNull(rotation, "rotation " + i);
+                token = rotation.getToken();
+            }
+
+            Assertions.assertEquals(1, small.size());
+            Assertions.assertNull(small.rotate(first));
+            Assertions.assertNull(small.rotate(token));
+            Assertions.assertEquals(1.0, meterRegistry.get("security.refresh").tag("outcome", "reused").counter().count());
+        } finally {
+            small.destroy();
+        }
+    }
+
+    @Test
+    public void testRevokeEndsFamily() {
+        String first = store.issue("alice");
+        String second = store.rotate(first).getToken();
+
+        store.revoke(second);
+
+        Assertions.assertNull(store.rotate(second));
+        Assertions.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testUnknownAndExpiredTokensAreRefused() {
+        RefreshTokenStore expiring = new RefreshTokenStore(0, 100, 60, meterRegistry);
+        try {
+            String token = expiring.issue("alice");
+
+            Assertions.assertNull(expiring.rotate(token));
+            Assertions.assertNull(store.rotate("not-a-token"));
+            Assertions.assertNull(store.rotate("unknown-family.secret"));
+            Assertions.assertNull(store.rotate(null));
+        } finally {
+            expiring.destroy();
+        }
+    }
+}
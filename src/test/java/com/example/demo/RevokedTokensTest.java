@@ -0,0 +1,62 @@
+package com.example.demo;
+
+import com.example.demo.security.RevokedTokens;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+public class RevokedTokensTest {
+
+    private RevokedTokens revokedTokens = new RevokedTokens(1000, 0.01, 1000, 16, new SimpleMeterRegistry(), false);
+
+    @Test
+    public void testRevokedIdIsDeniedUntilItsExpiry() {
+        long now = System.currentTimeMillis();
+        revokedTokens.revoke("token-1", now + 5_000);
+
+        Assertions.assertTrue(revokedTokens.isRevoked("token-1"));
+        Assertions.assertFalse(revokedTokens.isRevoked("token-2"));
+        Assertions.assertFalse(revokedTokens.isRevoked(null));
+
+        revokedTokens.advance(now + 2_000);
+        Assertions.assertTrue(revokedTokens.isRevoked("token-1"));
+
+        revokedTokens.advance(now + 7_000);
+        Assertions.assertFalse(revokedTokens.isRevoked("token-1"));
+        Assertions.assertEquals(0, revokedTokens.size());
+    }
+
+    @Test
+    public void testExpiriesBeyondOneTurnAndLateTicksAreHandled() {
+        long now = System.currentTimeMillis();
+        revokedTokens.revoke("near", now + 3_000);
+        revokedTokens.revoke("far", now + 40_000);
+        revokedTokens.revoke("expired", now - 1);
+
+        revokedTokens.advance(now + 20_000);
+
+        Assertions.assertFalse(revokedTokens.isRevoked("near"));
+        Assertions.assertTrue(revokedTokens.isRevoked("far"));
+        Assertions.assertFalse(revokedTokens.isRevoked("expired"));
+
+        revokedTokens.advance(now + 42_000);
+        Assertions.assertFalse(revokedTokens.isRevoked("far"));
+    }
+
+    @Test
+    public void testLiveEntriesSurviveFilterRebuild() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 200; i++) {
+            revokedTokens.revoke("short-" + i, now + 2_000);
+        }
+        revokedTokens.revoke("long", now + 60_000);
+
+        revokedTokens.advance(now + 5_000);
+
+        Assertions.assertTrue(revokedTokens.isRevoked("long"));
+        Assertions.assertEquals(1, revokedTokens.size());
+        for (int i = 0; i < 200; i++) {
+            Assertions.assertFalse(revokedTokens.isRevoked("short-" + i));
+        }
+    }
+}
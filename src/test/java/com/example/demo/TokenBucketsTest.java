@@ -0,0 +1,51 @@
+package com.example.demo;
+
+import com.example.demo.security.TokenBuckets;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucketsTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBurstThenRefill() {
+        TokenBuckets buckets = new TokenBuckets(3, 60, 100, 4);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, buckets.tryAcquire("client", 0));
+        }
+        long wait = buckets.tryAcquire("client", 0);
+        Assertions.assertEquals(SECOND, wait);
+        Assertions.assertEquals(0, buckets.tryAcquire("other", 0));
+
+        Assertions.assertTrue(buckets.tryAcquire("client", SECOND / 2) > 0);
+        Assertions.assertEquals(0, buckets.tryAcquire("client", SECOND));
+    }
+
+    @Test
+    public void testIdleBucketsAreEvicted() {
+        TokenBuckets buckets = new TokenBuckets(2, 60, 100, 2);
+        buckets.tryAcquire("a", 0);
+        buckets.tryAcquire("b", 0);
+        Assertions.assertEquals(2, buckets.size());
+
+        for (int i = 0; i < 8; i++) {
+            buckets.tryAcquire("c" + i, 3 * SECOND);
+        }
+
+        Assertions.assertEquals(8, buckets.size());
+    }
+
+    @Test
+    public void testKeysAreBounded() {
+        TokenBuckets buckets = new TokenBuckets(2, 60, 8, 2);
+        for (int i = 0; i < 100; i++) {
+            buckets.tryAcquire("client-" + i, 0);
+        }
+
+        Assertions.assertTrue(buckets.size() <= 8);
+    }
+}
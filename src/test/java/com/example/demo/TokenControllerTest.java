@@ -0,0 +1,88 @@
+package com.example.demo;
+
+import com.example.demo.controllers.TokenController;
+import com.example.demo.model.requests.RefreshTokenRequest;
+import com.example.demo.model.requests.RevokeTokenRequest;
+import com.example.demo.security.AccessTokens;
+import com.example.demo.security.RefreshTokenStore;
+import com.example.demo.security.RevokedTokens;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Collections;
+
+public class TokenControllerTest {
+
+    private TokenController tokenController;
+    private RefreshTokenStore refreshTokenStore = new RefreshTokenStore(60, 100, 60, new SimpleMeterRegistry());
+    private RevokedTokens revokedTokens = new RevokedTokens(100, 0.01, 1000, 16, new SimpleMeterRegistry(), false);
+
+    @Before
+    public void setUp() {
+        tokenController = new TokenController();
+        FieldInjector.injectObjects(tokenController, "refreshTokenStore", refreshTokenStore);
+        FieldInjector.injectObjects(tokenController, "revokedTokens", revokedTokens);
+    }
+
+    @After
+    public void tearDown() {
+        refreshTokenStore.destroy();
+    }
+
+    @Test
+    public void testRefreshIssuesAccessAndNextRefreshToken() {
+        ResponseEntity<Void> response = tokenController.refresh(request(refreshTokenStore.issue("testUser")));
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        String accessToken = response.getHeaders().getFirst(SecurityConstants.HEADER_STRING);
+        Assertions.assertTrue(accessToken.startsWith(SecurityConstants.TOKEN_PREFIX));
+        Assertions.assertEquals("testUser", new VerifiedTokenCache(10, 60, new SimpleMeterRegistry())
+                .verify(accessToken.substring(SecurityConstants.TOKEN_PREFIX.length())));
+        Assertions.assertNotNull(refreshTokenStore.rotate(response.getHeaders().getFirst(SecurityConstants.REFRESH_TOKEN_HEADER)));
+    }
+
+    @Test
+    public void testRefreshWithUnknownTokenIsUnauthorized() {
+        Assertions.assertEquals(401, tokenController.refresh(request("unknown")).getStatusCodeValue());
+    }
+
+    @Test
+    public void testLogoutRevokesAccessTokenAndRefreshFamily() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(10, 60, new SimpleMeterRegistry());
+        VerifiedTokenCache.VerifiedToken accessToken = verifiedTokenCache.verifyToken(
+                AccessTokens.bearer("testUser").substring(SecurityConstants.TOKEN_PREFIX.length()));
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken("testUser", null, Collections.emptyList());
+        authentication.setDetails(accessToken);
+        String refreshToken = refreshTokenStore.issue("testUser");
+
+        ResponseEntity<Void> response = tokenController.logout(request(refreshToken), authentication);
+
+        Assertions.assertEquals(204, response.getStatusCodeValue());
+        Assertions.assertTrue(revokedTokens.isRevoked(accessToken.getTokenId()));
+        Assertions.assertNull(refreshTokenStore.rotate(refreshToken));
+    }
+
+    @Test
+    public void testAdminRevokeDeniesTokenId() {
+        RevokeTokenRequest request = new RevokeTokenRequest();
+        request.setTokenId("token-1");
+
+        Assertions.assertEquals(204, tokenController.revokeToken(request).getStatusCodeValue());
+        Assertions.assertTrue(revokedTokens.isRevoked("token-1"));
+        Assertions.assertEquals(400, tokenController.revokeToken(new RevokeTokenRequest()).getStatusCodeValue());
+    }
+
+    private static RefreshTokenRequest request(String token) {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(token);
+        return request;
+    }
+}
@@ -5,6 +5,8 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.PasswordHashingRejectedException;
+import com.example.demo.security.UserDetailsServiceImpl;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
@@ -15,6 +17,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Optional;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UserControllerTest {
@@ -23,6 +26,7 @@ public class UserControllerTest {
     private UserRepository userRepoMock = mock(UserRepository.class);
     private CartRepository cartRepoMock = mock(CartRepository.class);
     private PasswordEncoder passwordEncoder = mock(BCryptPasswordEncoder.class);
+    private UserDetailsServiceImpl userDetailsServiceMock = mock(UserDetailsServiceImpl.class);
 
     @Before
     public void setUp() {
@@ -30,6 +34,38 @@ public class UserControllerTest {
         FieldInjector.injectObjects(controllerUnderTest, "userRepository", userRepoMock);
         FieldInjector.injectObjects(controllerUnderTest, "cartRepository", cartRepoMock);
         FieldInjector.injectObjects(controllerUnderTest, "encoder", passwordEncoder);
+        FieldInjector.injectObjects(controllerUnderTest, "userDetailsService", userDetailsServiceMock);
+    }
+
+    @Test
+    public void testCreateUser_Success() {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername("newUser");
+        request.setPassword("validPassword123");
+        request.setConfirmPassword("validPassword123");
+        when(passwordEncoder.encode("validPassword123")).thenReturn("hashedPassword");
+
+        ResponseEntity<?> response = controllerUnderTest.createUser(request);
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        User user = (User) response.getBody();
+        Assertions.assertEquals("newUser", user.getUsername());
+        Assertions.assertEquals("hashedPassword", user.getPassword());
+        verify(userDetailsServiceMock).evict("newUser");
+    }
+
+    @Test
+    public void testCreateUser_HashingSaturated() {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername("newUser");
+        request.setPassword("validPassword123");
+        request.setConfirmPassword("validPassword123");
+        when(passwordEncoder.encode("validPassword123")).thenThrow(new PasswordHashingRejectedException("full"));
+
+        ResponseEntity<?> response = controllerUnderTest.createUser(request);
+
+        Assertions.assertEquals(503, response.getStatusCodeValue());
+        Assertions.assertEquals("1", response.getHeaders().getFirst("Retry-After"));
     }
 
     @Test
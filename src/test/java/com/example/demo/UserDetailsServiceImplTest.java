@@ -0,0 +1,66 @@
+package com.example.demo;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.security.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserDetailsServiceImplTest {
+
+    private UserDetailsServiceImpl serviceUnderTest;
+    private UserRepository userRepoMock = mock(UserRepository.class);
+
+    @Before
+    public void setUp() {
+        serviceUnderTest = new UserDetailsServiceImpl(100, 600, 30, new SimpleMeterRegistry());
+        FieldInjector.injectObjects(serviceUnderTest, "userRepository", userRepoMock);
+    }
+
+    @Test
+    public void testLoadUserByUsername_CachesFoundUser() {
+        User user = new User();
+        user.setUsername("testUser");
+        user.setPassword("hash");
+        when(userRepoMock.findByUsername("testUser")).thenReturn(user);
+
+        UserDetails first = serviceUnderTest.loadUserByUsername("testUser");
+        UserDetails second = serviceUnderTest.loadUserByUsername("testUser");
+
+        Assertions.assertEquals("hash", second.getPassword());
+        Assertions.assertNotSame(first, second);
+        verify(userRepoMock, times(1)).findByUsername("testUser");
+    }
+
+    @Test
+    public void testLoadUserByUsername_CachesUnknownUser() {
+        when(userRepoMock.findByUsername("ghost")).thenReturn(null);
+
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> serviceUnderTest.loadUserByUsername("ghost"));
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> serviceUnderTest.loadUserByUsername("ghost"));
+        verify(userRepoMock, times(1)).findByUsername("ghost");
+    }
+
+    @Test
+    public void testEvict_ForgetsUnknownUser() {
+        when(userRepoMock.findByUsername("newUser")).thenReturn(null);
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> serviceUnderTest.loadUserByUsername("newUser"));
+
+        User user = new User();
+        user.setUsername("newUser");
+        user.setPassword("hash");
+        when(userRepoMock.findByUsername("newUser")).thenReturn(user);
+        serviceUnderTest.evict("newUser");
+
+        Assertions.assertEquals("hash", serviceUnderTest.loadUserByUsername("newUser").getPassword());
+    }
+}
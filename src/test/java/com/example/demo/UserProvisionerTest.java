@@ -0,0 +1,196 @@
+package com.example.demo;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.ProvisioningReport;
+import com.example.demo.security.UserDetailsServiceImpl;
+import com.example.demo.users.ProvisioningRejectedException;
+import com.example.demo.users.UserProvisioner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserProvisionerTest {
+
+    private UserRepository userRepoMock = mock(UserRepository.class);
+    private UserDetailsServiceImpl userDetailsServiceMock = mock(UserDetailsServiceImpl.class);
+    private PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserProvisioner provisioner = new UserProvisioner(userRepoMock, userDetailsServiceMock, passwordEncoder,
+            mock(PlatformTransactionManager.class), 2, 1, 2, meterRegistry);
+
+    @After
+    public void tearDown() {
+        provisioner.destroy();
+    }
+
+    @Test
+    public void testValidRowsAreHashedAndSavedInChunks() {
+        when(userRepoMock.findExistingUsernames(anyCollection())).thenReturn(Collections.emptySet());
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> "hashed-" + invocation.getArgument(0));
+        List<List<User>> batches = captureBatches();
+
+        ProvisioningReport report = provisioner.provision(requests(
+                request("alice", "password1"), request("bob", "password2"), request("carol", "password3")));
+
+        Assertions.assertEquals(3, report.getReceived());
+        Assertions.assertEquals(3, report.getCreated());
+        Assertions.assertTrue(report.getFailures().isEmpty());
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertEquals(2, batches.get(0).size());
+        User alice = batches.get(0).get(0);
+        Assertions.assertEquals("alice", alice.getUsername());
+        Assertions.assertEquals("hashed-password1", alice.getPassword());
+        Assertions.assertNotNull(alice.getCart());
+        verify(userRepoMock, times(2)).findExistingUsernames(anyCollection());
+        verify(userDetailsServiceMock).evict("carol");
+        Assertions.assertEquals(3.0, meterRegistry.get("users.provisioned").tag("outcome", "created").counter().count());
+    }
+
+    @Test
+    public void testInvalidDuplicateAndExistingRowsAreReported() {
+        when(userRepoMock.findExistingUsernames(anyCollection())).thenReturn(Collections.singleton("taken"));
+        when(passwordEncoder.encode(any())).thenReturn("hashed");
+        List<List<User>> batches = captureBatches();
+
+        ProvisioningReport report = provisioner.provision(requests(
+                request("alice", "short"), request("taken", "password1"), request("bob", "password2"),
+                request("bob", "password3")));
+
+        Assertions.assertEquals(4, report.getReceived());
+        Assertions.assertEquals(1, report.getCreated());
+        Assertions.assertEquals(3, report.getFailures().size());
+        Assertions.assertEquals(0, report.getFailures().get(0).getRow());
+        Assertions.assertEquals("Password must be at least 8 characters long", report.getFailures().get(0).getReason());
+        Assertions.assertEquals("Username already exists", report.getFailures().get(1).getReason());
+        Assertions.assertEquals(3, report.getFailures().get(2).getRow());
+        Assertions.assertEquals("Username appears more than once", report.getFailures().get(2).getReason());
+        Assertions.assertEquals(1, batches.size());
+        verify(passwordEncoder, never()).encode("password1");
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedRowByRow() {
+        when(userRepoMock.findExistingUsernames(anyCollection())).thenReturn(Collections.emptySet());
+        when(passwordEncoder.encode(any())).thenReturn("hashed");
+        when(userRepoMock.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(userRepoMock.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if ("bob".equals(user.getUsername())) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return user;
+        });
+
+        ProvisioningReport report = provisioner.provision(requests(
+                request("alice", "password1"), request("bob", "password2")));
+
+        Assertions.assertEquals(1, report.getCreated());
+        Assertions.assertEquals(1, report.getFailures().size());
+        Assertions.assertEquals("bob", report.getFailures().get(0).getUsername());
+        verify(userDetailsServiceMock).evict("alice");
+        verify(userDetailsServiceMock, never()).evict("bob");
+    }
+
+    @Test
+    public void testSecondConcurrentJobIsRejectedUntilTheFirstFinishes() {
+        when(userRepoMock.findExistingUsernames(anyCollection())).thenReturn(Collections.emptySet());
+        when(passwordEncoder.encode(any())).thenReturn("hashed");
+        Iterator<CreateUserRequest> rows = requests(request("alice", "password1"));
+        List<RuntimeException> rejections = new ArrayList<>();
+        Iterator<CreateUserRequest> running = new Iterator<CreateUserRequest>() {
+            @Override
+            public boolean hasNext() {
+                if (rows.hasNext()) {
+                    try {
+                        provisioner.provision(requests(request("bob", "password2")));
+                    } catch (ProvisioningRejectedException e) {
+                        rejections.add(e);
+                    }
+                }
+                return rows.hasNext();
+            }
+
+            @Override
+            public CreateUserRequest next() {
+                return rows.next();
+            }
+        };
+
+        Assertions.assertEquals(1, provisioner.provision(running).getCreated());
+        Assertions.assertEquals(1, rejections.size());
+        Assertions.assertEquals(1, provisioner.provision(requests(request("bob", "password2"))).getCreated());
+        verify(passwordEncoder, times(1)).encode("password2");
+    }
+
+    @Test
+    public void testMalformedInputKeepsEarlierRows() {
+        when(userRepoMock.findExistingUsernames(anyCollection())).thenReturn(Collections.emptySet());
+        when(passwordEncoder.encode(any())).thenReturn("hashed");
+        Iterator<CreateUserRequest> rows = requests(request("alice", "password1"));
+        Iterator<CreateUserRequest> malformed = new Iterator<CreateUserRequest>() {
+            @Override
+            public boolean hasNext() {
+                if (rows.hasNext()) {
+                    return true;
+                }
+                throw new IllegalArgumentException("unexpected token");
+            }
+
+            @Override
+            public CreateUserRequest next() {
+                return rows.next();
+            }
+        };
+
+        ProvisioningReport report = provisioner.provision(malformed);
+
+        Assertions.assertEquals(2, report.getReceived());
+        Assertions.assertEquals(1, report.getCreated());
+        Assertions.assertEquals("Malformed row", report.getFailures().get(0).getReason());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<User>> captureBatches() {
+        List<List<User>> batches = new ArrayList<>();
+        when(userRepoMock.saveAll(any())).thenAnswer(invocation -> {
+            List<User> batch = new ArrayList<>((Collection<User>) invocation.getArgument(0));
+            batches.add(batch);
+            return batch;
+        });
+        return batches;
+    }
+
+    private static Iterator<CreateUserRequest> requests(CreateUserRequest... requests) {
+        return Arrays.asList(requests).iterator();
+    }
+
+    private static CreateUserRequest request(String username, String password) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        request.setConfirmPassword(password);
+        return request;
+    }
+}
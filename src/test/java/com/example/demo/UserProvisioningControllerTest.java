@@ -0,0 +1,70 @@
+package com.example.demo;
+
+import com.example.demo.controllers.UserProvisioningController;
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.ProvisioningReport;
+import com.example.demo.users.ProvisioningRejectedException;
+import com.example.demo.users.UserProvisioner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserProvisioningControllerTest {
+
+    private UserProvisioningController controllerUnderTest;
+    private UserProvisioner userProvisionerMock = mock(UserProvisioner.class);
+
+    @Before
+    public void setUp() {
+        controllerUnderTest = new UserProvisioningController();
+        FieldInjector.injectObjects(controllerUnderTest, "userProvisioner", userProvisionerMock);
+        FieldInjector.injectObjects(controllerUnderTest, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    public void testProvisionUsers_ReadsArrayAndNewlineDelimitedBodies() throws Exception {
+        List<String> usernames = new ArrayList<>();
+        when(userProvisionerMock.provision(any())).thenAnswer(invocation -> {
+            Iterator<CreateUserRequest> requests = invocation.getArgument(0);
+            requests.forEachRemaining(request -> usernames.add(request.getUsername()));
+            return new ProvisioningReport(usernames.size(), usernames.size(), Collections.emptyList());
+        });
+
+        controllerUnderTest.provisionUsers(body("[{\"username\":\"alice\"},{\"username\":\"bob\"}]"));
+        ResponseEntity<ProvisioningReport> response = controllerUnderTest.provisionUsers(
+                body("{\"username\":\"carol\"}\n{\"username\":\"dave\"}\n"));
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals(4, response.getBody().getReceived());
+        Assertions.assertEquals(Arrays.asList("alice", "bob", "carol", "dave"), usernames);
+    }
+
+    @Test
+    public void testProvisionUsers_BusyAnswers503WithRetryAfter() throws Exception {
+        when(userProvisionerMock.provision(any())).thenThrow(new ProvisioningRejectedException("busy"));
+
+        ResponseEntity<ProvisioningReport> response = controllerUnderTest.provisionUsers(body("[]"));
+
+        Assertions.assertEquals(503, response.getStatusCodeValue());
+        Assertions.assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
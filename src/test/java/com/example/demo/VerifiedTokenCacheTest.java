@@ -0,0 +1,55 @@
+package com.example.demo;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.Date;
+
+public class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new VerifiedTokenCache(100, 300, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testVerify_CachesValidToken() {
+        String token = createToken("testUser", 60_000, SecurityConstants.ALGORITHM);
+
+        Assertions.assertEquals("testUser", cache.verify(token));
+        Assertions.assertEquals("testUser", cache.verify(token));
+        Assertions.assertEquals(1, cache.stats().missCount());
+        Assertions.assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    public void testVerify_RejectsTamperedToken() {
+        String token = createToken("testUser", 60_000, Algorithm.HMAC512("anothersecret".getBytes()));
+
+        Assertions.assertThrows(JWTVerificationException.class, () -> cache.verify(token));
+        Assertions.assertThrows(JWTVerificationException.class, () -> cache.verify(token));
+    }
+
+    @Test
+    public void testVerify_RejectsExpiredToken() {
+        String token = createToken("testUser", -60_000, SecurityConstants.ALGORITHM);
+
+        Assertions.assertThrows(JWTVerificationException.class, () -> cache.verify(token));
+    }
+
+    private String createToken(String subject, long ttlMillis, Algorithm algorithm) {
+        return JWT.create()
+                .withSubject(subject)
+                .withExpiresAt(new Date(System.currentTimeMillis() + ttlMillis))
+                .sign(algorithm);
+    }
+}